@@ -1,6 +1,8 @@
 plugins {
     id("com.gradleup.shadow") version "9.6.1"
+    id("me.champeau.jmh") version "0.7.3"
     id("java")
+    id("java-test-fixtures")
 }
 
 group = "com.viaversion.viabungee"
@@ -13,12 +15,29 @@ dependencies {
     compileOnly("com.viaversion:viaaprilfools-common:4.2.0")
     compileOnly("net.md-5:bungeecord-api:1.21-R0.4")
     implementation("net.lenni0451:Reflect:1.6.4")
+
+    testFixturesApi("com.viaversion:viaversion-common:5.9.0")
+    testFixturesApi("net.md-5:bungeecord-api:1.21-R0.4")
+
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation("org.openjdk.jol:jol-core:0.17")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    jmh(testFixtures(project))
+}
+
+jmh {
+    profilers = listOf("gc")
 }
 
 tasks {
     build {
         dependsOn(shadowJar)
     }
+    test {
+        useJUnitPlatform()
+    }
     shadowJar {
         archiveFileName.set("ViaBungee-${project.version}.jar")
     }
@@ -0,0 +1,115 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.bungee.fixture.StandInPlatform;
+import com.viaversion.viaversion.api.Via;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.TimeUnit;
+import net.md_5.bungee.protocol.packet.SetCompression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares always removing and re-adding the Via decoder on SetCompression, as done before,
+ * with only moving it when Bungee displaced it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecoderReorderBenchmark {
+
+    private final ChannelHandler decompressor = new ChannelInboundHandlerAdapter();
+    private EmbeddedChannel channel;
+    private ChannelPipeline pipeline;
+    private String decoder;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        StandInPlatform.init();
+
+        channel = new EmbeddedChannel();
+        channel.pipeline().addLast(BungeeViaInjector.PACKET_ENCODER, new ChannelOutboundHandlerAdapter());
+        channel.pipeline().addLast(BungeeViaInjector.PACKET_DECODER, new ChannelInboundHandlerAdapter());
+        new BungeeViaInjector().injectPipeline(channel, true);
+        pipeline = channel.pipeline();
+        decoder = Via.getManager().getInjector().getDecoderName();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    // Compression enabled for the first time, Bungee inserted its decompressor in front of the packet decoder
+
+    @Benchmark
+    public Object enableCompressionAlwaysReorder() {
+        pipeline.addBefore(BungeeViaInjector.PACKET_DECODER, BungeeViaInjector.DECOMPRESS, decompressor);
+        pipeline.addBefore(BungeeViaInjector.PACKET_DECODER, decoder, pipeline.remove(decoder));
+        return pipeline.remove(BungeeViaInjector.DECOMPRESS);
+    }
+
+    @Benchmark
+    public Object enableCompressionReorderWhenDisplaced() {
+        pipeline.addBefore(BungeeViaInjector.PACKET_DECODER, BungeeViaInjector.DECOMPRESS, decompressor);
+        BungeeViaInjector.reorderDecoder(pipeline);
+        return pipeline.remove(BungeeViaInjector.DECOMPRESS);
+    }
+
+    // Another SetCompression with the decoder already in place, e.g. a changed threshold
+
+    @Benchmark
+    public Object repeatedCompressionAlwaysReorder() {
+        return pipeline.addBefore(BungeeViaInjector.PACKET_DECODER, decoder, pipeline.remove(decoder));
+    }
+
+    @Benchmark
+    public Object repeatedCompressionReorderWhenDisplaced() {
+        BungeeViaInjector.reorderDecoder(pipeline);
+        return pipeline;
+    }
+
+    // Full path through the reorder handlers, with the decoder move deferred to the event loop like in Bungee
+
+    @Benchmark
+    public Object toggleCompression() {
+        channel.writeOutbound(new SetCompression(256));
+        channel.readOutbound();
+        pipeline.addBefore(BungeeViaInjector.PACKET_DECODER, BungeeViaInjector.DECOMPRESS, decompressor);
+        channel.runPendingTasks();
+        return pipeline.remove(BungeeViaInjector.DECOMPRESS);
+    }
+}
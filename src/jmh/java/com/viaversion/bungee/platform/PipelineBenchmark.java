@@ -0,0 +1,161 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.bungee.fixture.StandInPlatform;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.ProtocolInfo;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.ProtocolPathEntry;
+import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.api.type.Types;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.md_5.bungee.protocol.packet.SetCompression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pushes keep alive packets through the pipeline {@link BungeeViaInjector} builds for backend connections.
+ * Run with {@code ./gradlew jmh}, allocation rates are reported by the gc profiler.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    // Client version -> backend server version, all of them use a long keep alive id
+    @Param({"1.21.4->1.21.4", "1.21.4->1.20.4", "1.21.4->1.16.4", "1.20.4->1.12.2"})
+    public String versions;
+
+    @Param({"false", "true"})
+    public boolean compression;
+
+    private EmbeddedChannel channel;
+    private ByteBuf clientbound;
+    private ByteBuf serverbound;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        StandInPlatform.init();
+
+        final String[] split = versions.split("->");
+        final ProtocolVersion clientVersion = ProtocolVersion.getClosest(split[0]);
+        final ProtocolVersion serverVersion = ProtocolVersion.getClosest(split[1]);
+
+        channel = new EmbeddedChannel();
+        // Stand-ins for the handlers Bungee adds before initializing the channel
+        channel.pipeline().addLast(BungeeViaInjector.PACKET_ENCODER, new ChannelOutboundHandlerAdapter());
+        channel.pipeline().addLast(BungeeViaInjector.PACKET_DECODER, new ChannelInboundHandlerAdapter());
+        final UserConnection connection = new BungeeViaInjector().injectPipeline(channel, true);
+        final List<Protocol> protocols = setupPipeline(connection, clientVersion, serverVersion);
+        if (compression) {
+            enableCompression();
+        }
+
+        // Serverbound packets leave in the client's version, clientbound ones arrive in the server's
+        clientbound = keepAlive(protocols.isEmpty() ? 0 : packetId(protocols.get(protocols.size() - 1), true));
+        serverbound = keepAlive(protocols.isEmpty() ? 0 : packetId(protocols.get(0), false));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientbound.release();
+        serverbound.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public Object clientbound() {
+        channel.writeInbound(clientbound.retainedDuplicate());
+        return release(channel.readInbound());
+    }
+
+    @Benchmark
+    public Object serverbound() {
+        channel.writeOutbound(serverbound.retainedDuplicate());
+        return release(channel.readOutbound());
+    }
+
+    private void enableCompression() {
+        // Same order of events as in Bungee: the packet is written first, then the decompressor is added
+        channel.writeOutbound(new SetCompression(256));
+        channel.readOutbound();
+        channel.pipeline().addBefore(BungeeViaInjector.PACKET_DECODER, BungeeViaInjector.DECOMPRESS, new ChannelInboundHandlerAdapter());
+        channel.runPendingTasks();
+    }
+
+    private static List<Protocol> setupPipeline(final UserConnection connection, final ProtocolVersion clientVersion, final ProtocolVersion serverVersion) throws Exception {
+        final ProtocolInfo info = connection.getProtocolInfo();
+        info.setProtocolVersion(clientVersion);
+        info.setServerProtocolVersion(serverVersion);
+        info.setState(State.PLAY);
+
+        final List<Protocol> protocols = new ArrayList<>();
+        final List<ProtocolPathEntry> path = Via.getManager().getProtocolManager().getProtocolPath(clientVersion, serverVersion);
+        if (path != null) {
+            for (final ProtocolPathEntry entry : path) {
+                Via.getManager().getProtocolManager().completeMappingDataLoading(entry.protocol().getClass());
+                protocols.add(entry.protocol());
+            }
+            info.getPipeline().add(protocols);
+        }
+        return protocols;
+    }
+
+    private static int packetId(final Protocol<?, ?, ?, ?> protocol, final boolean clientbound) {
+        final var types = protocol.getPacketTypesProvider();
+        return clientbound
+            ? types.unmappedClientboundPacketTypes().get(State.PLAY).typeByName("KEEP_ALIVE").getId()
+            : types.mappedServerboundPacketTypes().get(State.PLAY).typeByName("KEEP_ALIVE").getId();
+    }
+
+    private static ByteBuf keepAlive(final int packetId) {
+        final ByteBuf buf = Unpooled.buffer();
+        Types.VAR_INT.writePrimitive(buf, packetId);
+        buf.writeLong(System.nanoTime());
+        return buf;
+    }
+
+    private static Object release(final Object msg) {
+        ReferenceCountUtil.release(msg);
+        return msg;
+    }
+}
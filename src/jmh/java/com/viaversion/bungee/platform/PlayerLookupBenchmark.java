@@ -0,0 +1,104 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.bungee.fixture.StandInPlatform;
+import com.viaversion.bungee.storage.BungeeStorage;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.connection.UserConnectionImpl;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares resolving the player of a connection by uuid, the way BungeeCord's getPlayer does it behind its connection lock,
+ * with reading the player linked in connection storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class PlayerLookupBenchmark {
+
+    @Param({"1000", "10000"})
+    private int players;
+
+    private final ReadWriteLock connectionLock = new ReentrantReadWriteLock();
+    private final Map<UUID, ProxiedPlayer> playersByUuid = new HashMap<>();
+    private UserConnection[] connections;
+
+    @Setup
+    public void setup() throws Exception {
+        StandInPlatform.init();
+
+        connections = new UserConnection[players];
+        for (int i = 0; i < players; i++) {
+            final UUID uuid = UUID.randomUUID();
+            final ProxiedPlayer player = (ProxiedPlayer) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ProxiedPlayer.class},
+                (proxy, method, args) -> method.getName().equals("getUniqueId") ? uuid : null);
+            playersByUuid.put(uuid, player);
+
+            final UserConnection connection = new UserConnectionImpl(new EmbeddedChannel(), false);
+            connection.getProtocolInfo().setUuid(uuid);
+            connection.put(new BungeeStorage(player, null));
+            connections[i] = connection;
+        }
+    }
+
+    @Benchmark
+    public ProxiedPlayer uuidLookup() {
+        final UUID uuid = randomConnection().getProtocolInfo().getUuid();
+        connectionLock.readLock().lock();
+        try {
+            return playersByUuid.get(uuid);
+        } finally {
+            connectionLock.readLock().unlock();
+        }
+    }
+
+    @Benchmark
+    public ProxiedPlayer linkedPlayer() {
+        return BungeePlayerLinks.player(randomConnection());
+    }
+
+    private UserConnection randomConnection() {
+        return connections[ThreadLocalRandom.current().nextInt(connections.length)];
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.bungee.fixture.StandInPlatform;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares injecting channels with per-channel reorder handlers, as created before, with the shared ones.
+ * Run with the gc profiler for the allocation per injected channel; the retained size is checked by ReorderHandlerFootprintTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReorderHandlerFootprintBenchmark {
+
+    private BungeeViaInjector injector;
+
+    @Setup
+    public void setup() throws Exception {
+        StandInPlatform.init();
+        injector = new BungeeViaInjector();
+    }
+
+    @Benchmark
+    public int sharedHandlers() {
+        final EmbeddedChannel channel = LegacyReorderHandlers.channel();
+        LegacyReorderHandlers.injectShared(injector, channel);
+        return close(channel);
+    }
+
+    @Benchmark
+    public int perChannelHandlers() {
+        final EmbeddedChannel channel = LegacyReorderHandlers.channel();
+        LegacyReorderHandlers.injectPerChannel(injector, channel);
+        return close(channel);
+    }
+
+    private static int close(final EmbeddedChannel channel) {
+        final int handlers = channel.pipeline().names().size();
+        channel.finishAndReleaseAll();
+        return handlers;
+    }
+}
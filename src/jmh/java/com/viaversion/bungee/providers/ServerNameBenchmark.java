@@ -0,0 +1,106 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.providers;
+
+import com.viaversion.bungee.fixture.StandInPlatform;
+import com.viaversion.bungee.storage.BackendStorage;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.connection.UserConnectionImpl;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares walking the pipeline into Bungee's handler boss with reading the name from connection storage.
+ * The Bungee classes are replaced by stand-ins with the same shape.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerNameBenchmark {
+
+    private static final MethodHandle GET_SERVER_CONNECTOR;
+    private static final MethodHandle GET_BUNGEE_SERVER_INFO;
+    private static final MethodHandle GET_SERVER_NAME;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            GET_SERVER_CONNECTOR = MethodHandles.privateLookupIn(HandlerBoss.class, lookup).findGetter(HandlerBoss.class, "handler", Object.class);
+            GET_BUNGEE_SERVER_INFO = MethodHandles.privateLookupIn(ServerConnector.class, lookup).findGetter(ServerConnector.class, "target", BungeeServerInfo.class);
+            GET_SERVER_NAME = MethodHandles.privateLookupIn(BungeeServerInfo.class, lookup).findGetter(BungeeServerInfo.class, "name", String.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private EmbeddedChannel channel;
+    private UserConnection connection;
+
+    @Setup
+    public void setup() throws Exception {
+        StandInPlatform.init();
+
+        channel = new EmbeddedChannel();
+        channel.pipeline().addLast("inbound-boss", new HandlerBoss(new ServerConnector(new BungeeServerInfo("lobby"))));
+        connection = new UserConnectionImpl(channel, true);
+        connection.put(new BackendStorage("lobby", ProtocolVersion.v1_21));
+    }
+
+    @Benchmark
+    public String pipelineWalk() throws Throwable {
+        final Object serverConnector = GET_SERVER_CONNECTOR.invoke(channel.pipeline().get("inbound-boss"));
+        final Object bungeeServerInfo = GET_BUNGEE_SERVER_INFO.invoke(serverConnector);
+        return (String) GET_SERVER_NAME.invoke(bungeeServerInfo);
+    }
+
+    @Benchmark
+    public String storage() {
+        return connection.get(BackendStorage.class).serverName();
+    }
+
+    private static final class HandlerBoss extends ChannelInboundHandlerAdapter {
+        private final Object handler;
+
+        private HandlerBoss(final Object handler) {
+            this.handler = handler;
+        }
+    }
+
+    private record ServerConnector(BungeeServerInfo target) {
+    }
+
+    private record BungeeServerInfo(String name) {
+    }
+}
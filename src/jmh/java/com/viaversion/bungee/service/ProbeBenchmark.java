@@ -0,0 +1,97 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.service;
+
+import com.viaversion.bungee.ViaBungeeConfig;
+import com.viaversion.bungee.fixture.StandInPlatform;
+import com.viaversion.bungee.fixture.StandInServer;
+import com.viaversion.bungee.fixture.StandInServerInfo;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.md_5.bungee.api.config.ServerInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs full probe rounds against stand-in servers on loopback.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProbeBenchmark {
+
+    @Param({"100", "1000"})
+    private int servers;
+
+    @Param({"0", "20"})
+    private long latencyMillis;
+
+    @Param({"0", "0.05"})
+    private double failureRate;
+
+    private EventLoopGroup group;
+    private final List<StandInServer> standInServers = new ArrayList<>();
+    private final List<ServerInfo> serverInfos = new ArrayList<>();
+    private ProtocolDetectorService service;
+
+    @Setup
+    public void setup() throws Exception {
+        StandInPlatform.init();
+
+        final ViaBungeeConfig config = new ViaBungeeConfig(new File(Via.getPlatform().getDataFolder(), "viabungee.yml"), Via.getPlatform().getLogger());
+        config.reload();
+        service = new ProtocolDetectorService(() -> config);
+
+        group = new NioEventLoopGroup();
+        for (int i = 0; i < servers; i++) {
+            final StandInServer server = StandInServer.start(group, ProtocolVersion.v1_21.getVersion(), latencyMillis, failureRate);
+            standInServers.add(server);
+            serverInfos.add(new StandInServerInfo("server-" + i, server.address(), group, config.getBungeePingTimeout()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        standInServers.forEach(StandInServer::close);
+        group.shutdownGracefully();
+    }
+
+    @Benchmark
+    public ProbeResult probeRound() {
+        return service.probeServers(serverInfos, 0).join();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.service;
+
+import com.viaversion.bungee.ViaBungeeConfig;
+import com.viaversion.bungee.fixture.StandInPlatform;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.libs.fastutil.objects.Object2IntMap;
+import com.viaversion.viaversion.libs.fastutil.objects.Object2IntOpenHashMap;
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up server versions through {@link ProtocolDetectorService#serverProtocolVersion(String)},
+ * on its own and with many threads joining players while one thread keeps updating detected versions like a probe round.
+ * The locked group runs the same load against maps behind a read-write lock, as looked up before the snapshot.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerVersionLookupBenchmark {
+
+    @Param({"10", "200"})
+    private int servers;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object2IntMap<String> detected = new Object2IntOpenHashMap<>();
+    private final Map<String, Integer> configured = new HashMap<>();
+    private final Set<String> registered = new HashSet<>();
+    private ProtocolDetectorService service;
+    private String[] names;
+
+    @Setup
+    public void setup() throws Exception {
+        StandInPlatform.init();
+
+        final ViaBungeeConfig config = new ViaBungeeConfig(new File(Via.getPlatform().getDataFolder(), "viabungee.yml"), Via.getPlatform().getLogger());
+        config.reload();
+        service = new ProtocolDetectorService(() -> config);
+        config.addReloadListener(service::reloadVersions);
+
+        detected.defaultReturnValue(-1);
+        configured.put("default", ProtocolVersion.v1_8.getVersion());
+        names = new String[servers];
+        for (int i = 0; i < servers; i++) {
+            names[i] = "server-" + i;
+            registered.add(names[i]);
+            // Leave every other server to the configured default
+            if (i % 2 == 0) {
+                service.setProtocolVersion(names[i], ProtocolVersion.v1_21.getVersion());
+                detected.put(names[i], ProtocolVersion.v1_21.getVersion());
+            }
+        }
+    }
+
+    @Benchmark
+    public ProtocolVersion lookup() {
+        return service.serverProtocolVersion(randomName());
+    }
+
+    @Benchmark
+    @Group("probing")
+    @GroupThreads(7)
+    public ProtocolVersion lookupWhileProbing() {
+        return service.serverProtocolVersion(randomName());
+    }
+
+    @Benchmark
+    @Group("probing")
+    @GroupThreads(1)
+    public void probeUpdate() {
+        service.setProtocolVersion(randomName(), ProtocolVersion.v1_21.getVersion());
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(7)
+    public int lockedLookup() {
+        final String name = randomName();
+        lock.readLock().lock();
+        try {
+            final int protocol = detected.getInt(name);
+            if (protocol != -1) {
+                return protocol;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        final Integer protocol = configured.get(name);
+        return protocol != null ? protocol : configured.get("default");
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedUpdate() {
+        lock.writeLock().lock();
+        try {
+            // Unregistered servers are dropped on every round
+            detected.keySet().retainAll(registered);
+            detected.put(randomName(), ProtocolVersion.v1_21.getVersion());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private String randomName() {
+        return names[ThreadLocalRandom.current().nextInt(names.length)];
+    }
+}
@@ -17,26 +17,47 @@
  */
 package com.viaversion.bungee;
 
+import com.viaversion.bungee.util.FileUtil;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.util.Config;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import net.md_5.bungee.protocol.ProtocolConstants;
 
 public final class ViaBungeeConfig extends Config {
 
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private final File configFile;
+    private final Logger logger;
+
     private int bungeePingInterval;
+    private int bungeePingMaxInterval;
     private boolean bungeePingSave;
+    private int bungeePingConcurrency;
+    private int bungeePingTimeout;
+    private boolean bungeePingOnConnect;
+    private int bungeePingOnConnectTimeout;
+    private boolean bungeePassthrough;
+    private boolean bungeePacketMetrics;
+    private int bungeeExecutorThreads;
+    private int bungeeExecutorQueueSize;
+    private boolean bungeeExecutorVirtualThreads;
     private Map<String, Integer> bungeeServerProtocols;
 
-    ViaBungeeConfig(final File configFile, final Logger logger) {
+    public ViaBungeeConfig(final File configFile, final Logger logger) {
         super(configFile, logger);
+        this.configFile = configFile;
+        this.logger = logger;
     }
 
     @Override
@@ -44,8 +65,38 @@ public final class ViaBungeeConfig extends Config {
         super.reload();
 
         bungeePingInterval = getInt("bungee-ping-interval", 60);
+        bungeePingMaxInterval = getInt("bungee-ping-max-interval", 960);
         bungeePingSave = getBoolean("bungee-ping-save", true);
+        bungeePingConcurrency = getInt("bungee-ping-concurrency", 16);
+        bungeePingTimeout = getInt("bungee-ping-timeout", 5000);
+        bungeePingOnConnect = getBoolean("bungee-ping-on-connect", false);
+        bungeePingOnConnectTimeout = getInt("bungee-ping-on-connect-timeout", 200);
+        bungeePassthrough = getBoolean("bungee-passthrough", false);
+        bungeePacketMetrics = getBoolean("bungee-packet-metrics", false);
+        bungeeExecutorThreads = getInt("bungee-executor-threads", 4);
+        bungeeExecutorQueueSize = getInt("bungee-executor-queue-size", 1024);
+        bungeeExecutorVirtualThreads = getBoolean("bungee-executor-virtual-threads", false);
         bungeeServerProtocols = get("bungee-servers", new HashMap<>());
+        reloadListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Adds a listener to be run after every reload, e.g. to rebuild state derived from the config.
+     *
+     * @param listener listener to run
+     */
+    public void addReloadListener(final Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    @Override
+    public void save() {
+        // Write to a temporary file first, so that the config is never left half written
+        try {
+            FileUtil.writeAndReplace(configFile.toPath(), tempFile -> saveConfig(tempFile.toFile(), getValues()));
+        } catch (final IOException e) {
+            logger.log(Level.WARNING, "Failed to save " + configFile.getName(), e);
+        }
     }
 
     @Override
@@ -105,6 +156,15 @@ public final class ViaBungeeConfig extends Config {
         return bungeePingInterval;
     }
 
+    /**
+     * Up to which interval servers with an unchanged version are checked less often.
+     *
+     * @return Maximum ping interval in seconds
+     */
+    public int getBungeePingMaxInterval() {
+        return bungeePingMaxInterval;
+    }
+
     /**
      * Should the bungee ping be saved to the config on change.
      *
@@ -114,6 +174,87 @@ public final class ViaBungeeConfig extends Config {
         return bungeePingSave;
     }
 
+    /**
+     * How many servers may be pinged at the same time.
+     *
+     * @return Maximum number of concurrent pings
+     */
+    public int getBungeePingConcurrency() {
+        return bungeePingConcurrency;
+    }
+
+    /**
+     * How long to wait for a server to answer a ping.
+     *
+     * @return Ping timeout in milliseconds
+     */
+    public int getBungeePingTimeout() {
+        return bungeePingTimeout;
+    }
+
+    /**
+     * Should a server without a recently confirmed version be pinged when a player connects to it.
+     *
+     * @return True if servers should be pinged on connect
+     */
+    public boolean isBungeePingOnConnect() {
+        return bungeePingOnConnect;
+    }
+
+    /**
+     * How long a player joining the proxy may wait for the ping of their first server.
+     *
+     * @return On connect ping timeout in milliseconds
+     */
+    public int getBungeePingOnConnectTimeout() {
+        return bungeePingOnConnectTimeout;
+    }
+
+    /**
+     * Should Via remove its decoding handlers from players that don't need any translation.
+     *
+     * @return True if pass-through is enabled
+     */
+    public boolean isBungeePassthrough() {
+        return bungeePassthrough;
+    }
+
+    /**
+     * Should the time spent translating each packet be recorded.
+     *
+     * @return True if packet metrics are enabled
+     */
+    public boolean isBungeePacketMetrics() {
+        return bungeePacketMetrics;
+    }
+
+    /**
+     * How many threads may run Via's tasks at the same time.
+     *
+     * @return Maximum number of worker threads
+     */
+    public int getBungeeExecutorThreads() {
+        return bungeeExecutorThreads;
+    }
+
+    /**
+     * How many tasks may wait for a free worker thread.
+     *
+     * @return Maximum number of queued tasks
+     */
+    public int getBungeeExecutorQueueSize() {
+        return bungeeExecutorQueueSize;
+    }
+
+    /**
+     * Should Via's tasks run on virtual threads, if supported by the JVM.
+     *
+     * @return True if virtual threads should be used
+     */
+    public boolean isBungeeExecutorVirtualThreads() {
+        return bungeeExecutorVirtualThreads;
+    }
+
     /**
      * Get the listed server protocols in the config.
      * default will be listed as default.
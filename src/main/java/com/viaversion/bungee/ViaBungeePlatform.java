@@ -20,13 +20,17 @@ package com.viaversion.bungee;
 import com.google.common.collect.ImmutableList;
 import com.viaversion.bungee.commands.BungeeCommand;
 import com.viaversion.bungee.commands.BungeeCommandHandler;
+import com.viaversion.bungee.listeners.ServerSwitchCorrections;
+import com.viaversion.bungee.platform.BungeePlayerLinks;
 import com.viaversion.bungee.platform.BungeeViaAPI;
 import com.viaversion.bungee.platform.BungeeViaConfig;
 import com.viaversion.bungee.platform.BungeeViaInjector;
 import com.viaversion.bungee.platform.BungeeViaLoader;
 import com.viaversion.bungee.platform.BungeeViaTask;
+import com.viaversion.bungee.platform.ViaTaskExecutor;
 import com.viaversion.bungee.service.ProtocolDetectorService;
 import com.viaversion.bungee.storage.BungeeStorage;
+import com.viaversion.bungee.storage.ClientStorage;
 import com.viaversion.viaaprilfools.ViaAprilFoolsPlatformImpl;
 import com.viaversion.viabackwards.ViaBackwardsPlatformImpl;
 import com.viaversion.viarewind.ViaRewindPlatformImpl;
@@ -37,31 +41,33 @@ import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.platform.PlatformTask;
 import com.viaversion.viaversion.api.platform.UnsupportedSoftware;
 import com.viaversion.viaversion.api.platform.ViaServerProxyPlatform;
+import com.viaversion.viaversion.connection.ConnectionDetails;
 import com.viaversion.viaversion.dump.PluginInfo;
 import com.viaversion.viaversion.libs.gson.JsonObject;
 import com.viaversion.viaversion.unsupported.UnsupportedServerSoftware;
 import com.viaversion.viaversion.util.GsonUtil;
+import io.netty.channel.EventLoop;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
-import net.md_5.bungee.api.connection.Server;
 import net.md_5.bungee.api.plugin.Plugin;
 
 public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPlayer> {
 
-    private final ProtocolDetectorService protocolDetectorService = new ProtocolDetectorService();
+    private final ProtocolDetectorService protocolDetectorService = new ProtocolDetectorService(this::getBungeeConfig);
     private final ViaBungeePlugin plugin;
     private final BungeeViaAPI api;
     private final BungeeViaConfig viaConfig;
     private final ViaBungeeConfig bungeeConfig;
+    private final ViaTaskExecutor executor;
+    private final BungeeViaLoader loader;
+    private final ServerSwitchCorrections serverSwitchCorrections = new ServerSwitchCorrections();
 
     public ViaBungeePlatform(final ViaBungeePlugin plugin, final File pluginFolder) {
         this.plugin = plugin;
@@ -80,19 +86,24 @@ public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPl
         api = new BungeeViaAPI();
         viaConfig = new BungeeViaConfig(getDataFolder(), getLogger());
         bungeeConfig = new ViaBungeeConfig(new File(pluginFolder, "config.yml"), getLogger());
+        bungeeConfig.addReloadListener(protocolDetectorService::reloadVersions);
         BungeeCommandHandler commandHandler = new BungeeCommandHandler();
         ProxyServer.getInstance().getPluginManager().registerCommand(plugin, new BungeeCommand(commandHandler));
 
         // Init platform
+        loader = new BungeeViaLoader(this);
         Via.init(ViaManagerImpl.builder()
             .platform(this)
             .injector(new BungeeViaInjector())
-            .loader(new BungeeViaLoader(this))
+            .loader(loader)
             .commandHandler(commandHandler)
             .build());
 
         viaConfig.reload();
         bungeeConfig.reload();
+        executor = new ViaTaskExecutor(bungeeConfig.getBungeeExecutorThreads(), bungeeConfig.getBungeeExecutorQueueSize(),
+            bungeeConfig.isBungeeExecutorVirtualThreads(), getLogger());
+        protocolDetectorService.loadSnapshot(new File(pluginFolder, "detected-servers.dat"));
 
         if (hasClass("com.viaversion.viabackwards.api.ViaBackwardsPlatform")) {
             getLogger().info("Found ViaBackwards, loading it");
@@ -123,6 +134,12 @@ public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPl
         manager.onServerLoaded();
     }
 
+    public void onDisable() {
+        // Via's destroy would try to uninject, which isn't possible on Bungee; unloading flushes detected versions
+        loader.unload();
+        executor.shutdown();
+    }
+
     @Override
     public Logger getLogger() {
         return plugin.getLogger();
@@ -149,12 +166,12 @@ public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPl
 
     @Override
     public PlatformTask runAsync(Runnable runnable) {
-        return new BungeeViaTask(getProxy().getScheduler().runAsync(plugin, runnable));
+        return new BungeeViaTask(executor.execute(runnable));
     }
 
     @Override
     public PlatformTask runRepeatingAsync(final Runnable runnable, final long ticks) {
-        return new BungeeViaTask(getProxy().getScheduler().schedule(plugin, runnable, 0, ticks * 50, TimeUnit.MILLISECONDS));
+        return executor.scheduleRepeating(runnable, ticks);
     }
 
     @Override
@@ -164,7 +181,7 @@ public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPl
 
     @Override
     public PlatformTask runSync(Runnable runnable, long delay) {
-        return new BungeeViaTask(getProxy().getScheduler().schedule(plugin, runnable, delay * 50, TimeUnit.MILLISECONDS));
+        return executor.schedule(runnable, delay);
     }
 
     @Override
@@ -172,9 +189,25 @@ public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPl
         return runRepeatingAsync(runnable, period);
     }
 
+    /**
+     * Runs the task on the event loop of the connection's channel, right away if already called from it.
+     * Tasks of a connection run in order without any locking, and without a hand-off through the executor.
+     *
+     * @param connection connection the task belongs to
+     * @param runnable   task to run
+     */
+    public void runOnEventLoop(final UserConnection connection, final Runnable runnable) {
+        final EventLoop eventLoop = connection.getChannel().eventLoop();
+        if (eventLoop.inEventLoop()) {
+            runnable.run();
+        } else {
+            eventLoop.execute(runnable);
+        }
+    }
+
     @Override
     public void sendMessage(UserConnection connection, String message) {
-        final ProxiedPlayer player = getProxy().getPlayer(connection.getProtocolInfo().getUuid());
+        final ProxiedPlayer player = BungeePlayerLinks.player(connection);
         if (player != null) {
             player.sendMessage(TextComponent.fromLegacy(message));
         }
@@ -182,16 +215,22 @@ public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPl
 
     @Override
     public void sendCustomPayload(final UserConnection connection, final String channel, final byte[] message) {
-        final ProxiedPlayer player = getProxy().getPlayer(connection.getProtocolInfo().getUuid());
-        if (player != null) {
-            final Server server = connection.get(BungeeStorage.class).server();
-            server.sendData(channel, message);
+        final BungeeStorage storage = connection.get(BungeeStorage.class);
+        if (storage != null && storage.server() != null) {
+            storage.server().sendData(channel, message);
+            if (channel.equals(ConnectionDetails.PROXY_CHANNEL)) {
+                // Sent again as is on the next server switch
+                final ClientStorage clientStorage = ClientStorage.of(connection);
+                if (clientStorage != null) {
+                    clientStorage.setConnectionDetails(connection, message);
+                }
+            }
         }
     }
 
     @Override
     public void sendCustomPayloadToClient(final UserConnection connection, final String channel, final byte[] message) {
-        final ProxiedPlayer player = getProxy().getPlayer(connection.getProtocolInfo().getUuid());
+        final ProxiedPlayer player = BungeePlayerLinks.player(connection);
         if (player != null) {
             player.sendData(channel, message);
         }
@@ -199,12 +238,11 @@ public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPl
 
     @Override
     public boolean kickPlayer(UserConnection connection, String message) {
-        final UUID uuid = connection.getProtocolInfo().getUuid();
-        if (uuid == null) {
+        if (connection.getProtocolInfo().getUuid() == null) {
             return false;
         }
 
-        final ProxiedPlayer player = getProxy().getPlayer(uuid);
+        final ProxiedPlayer player = BungeePlayerLinks.player(connection);
         if (player != null) {
             player.disconnect(TextComponent.fromLegacy(message));
         }
@@ -246,6 +284,7 @@ public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPl
 
         platformSpecific.add("plugins", GsonUtil.getGson().toJsonTree(plugins));
         platformSpecific.add("servers", GsonUtil.getGson().toJsonTree(protocolDetectorService.detectedProtocolVersions()));
+        platformSpecific.add("executor", executor.dump());
         return platformSpecific;
     }
 
@@ -270,6 +309,15 @@ public final class ViaBungeePlatform implements ViaServerProxyPlatform<ProxiedPl
         return protocolDetectorService;
     }
 
+    /**
+     * Returns the stage sending correction packets to players after they switched servers.
+     *
+     * @return server switch corrections
+     */
+    public ServerSwitchCorrections serverSwitchCorrections() {
+        return serverSwitchCorrections;
+    }
+
     public Plugin getPlugin() {
         return plugin;
     }
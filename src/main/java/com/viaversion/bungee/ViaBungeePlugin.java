@@ -38,6 +38,11 @@ public class ViaBungeePlugin extends Plugin {
         platform.onEnable();
     }
 
+    @Override
+    public void onDisable() {
+        platform.onDisable();
+    }
+
     private void loadImplementation() {
         final File[] files = getDataFolder().listFiles();
         if (files == null || files.length == 0) {
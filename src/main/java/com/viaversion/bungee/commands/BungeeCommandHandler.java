@@ -17,6 +17,7 @@
  */
 package com.viaversion.bungee.commands;
 
+import com.viaversion.bungee.commands.subs.MetricsSubCmd;
 import com.viaversion.bungee.commands.subs.ProbeSubCmd;
 import com.viaversion.viaversion.commands.ViaCommandHandler;
 
@@ -25,5 +26,6 @@ public class BungeeCommandHandler extends ViaCommandHandler {
     public BungeeCommandHandler() {
         super(true);
         registerSubCommand(new ProbeSubCmd());
+        registerSubCommand(new MetricsSubCmd());
     }
 }
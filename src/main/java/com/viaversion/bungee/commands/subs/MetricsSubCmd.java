@@ -0,0 +1,92 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.commands.subs;
+
+import com.viaversion.bungee.metrics.PacketMetrics;
+import com.viaversion.bungee.metrics.PacketStats;
+import com.viaversion.bungee.platform.BungeeViaInjector;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.command.ViaCommandSender;
+import com.viaversion.viaversion.api.command.ViaSubCommand;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+public final class MetricsSubCmd implements ViaSubCommand {
+
+    private static final int SHOWN_PACKETS = 5;
+
+    @Override
+    public String name() {
+        return "metrics";
+    }
+
+    @Override
+    public String description() {
+        return "Shows the time spent translating packets";
+    }
+
+    @Override
+    public String usage() {
+        return "metrics [reset]";
+    }
+
+    @Override
+    public boolean execute(ViaCommandSender sender, String[] args) {
+        final PacketMetrics metrics = ((BungeeViaInjector) Via.getManager().getInjector()).getPacketMetrics();
+        if (metrics == null) {
+            sendMessage(sender, "&cPacket metrics are disabled, enable bungee-packet-metrics in the ViaBungee config.yml");
+            return true;
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sendMessage(sender, "&6Packet metrics have been reset");
+            return true;
+        }
+
+        final Map<PacketMetrics.Entry, PacketStats> snapshot = metrics.snapshot();
+        if (snapshot.isEmpty()) {
+            sendMessage(sender, "&6No packets have been recorded yet");
+            return true;
+        }
+
+        for (final Map.Entry<PacketMetrics.Entry, PacketStats> entry : snapshot.entrySet()) {
+            final PacketMetrics.Entry key = entry.getKey();
+            final PacketStats stats = entry.getValue();
+            sendMessage(sender, "&6%s &7(%s -> %s)", key.direction(),
+                ProtocolVersion.getProtocol(key.clientVersion()).getName(),
+                ProtocolVersion.getProtocol(key.serverVersion()).getName());
+
+            IntStream.range(0, PacketStats.PACKET_IDS)
+                .filter(id -> stats.count(id) > 0)
+                .boxed()
+                .sorted(Comparator.comparingLong(stats::count).reversed())
+                .limit(SHOWN_PACKETS)
+                .forEach(id -> sendMessage(sender, "&7  0x%02X: &f%d packets, %d bytes, mean %dns, p50 %s, p99 %s",
+                    id, stats.count(id), stats.bytes(id), stats.meanNanos(id),
+                    bound(stats.percentileNanos(id, 0.5)), bound(stats.percentileNanos(id, 0.99))));
+        }
+        return true;
+    }
+
+    private static String bound(final long nanos) {
+        return nanos == Long.MAX_VALUE ? ">=" + PacketStats.OVERFLOW_NANOS + "ns" : "<" + nanos + "ns";
+    }
+}
@@ -38,7 +38,10 @@ public final class ProbeSubCmd implements ViaSubCommand {
 
     @Override
     public boolean execute(ViaCommandSender sender, String[] args) {
-        Via.proxyPlatform().protocolDetectorService().probeAllServers();
+        final ViaBungeePlatform platform = (ViaBungeePlatform) Via.getPlatform();
+        platform.protocolDetectorService().probeAllServers(0).thenAccept(result -> sendMessage(sender,
+            "&6Finished searching for protocol versions: &a%d succeeded (%d changed)&6, &c%d failed&6, &e%d timed out",
+            result.succeeded(), result.changed(), result.failed(), result.timedOut()));
         sendMessage(sender, "&6Started searching for protocol versions");
         return true;
     }
@@ -18,12 +18,15 @@
 package com.viaversion.bungee.listeners;
 
 import com.viaversion.bungee.ViaBungeePlatform;
+import com.viaversion.bungee.platform.BungeePlayerLinks;
 import com.viaversion.bungee.storage.BungeeStorage;
+import com.viaversion.bungee.storage.ClientStorage;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.connection.ConnectionDetails;
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.event.PluginMessageEvent;
 import net.md_5.bungee.api.event.ServerConnectedEvent;
@@ -32,34 +35,45 @@ import net.md_5.bungee.event.EventHandler;
 
 public final class ConnectionDetailsListener implements Listener {
 
-    private final ViaBungeePlatform plugin;
-
-    public ConnectionDetailsListener(ViaBungeePlatform plugin) {
-        this.plugin = plugin;
-    }
-
     @EventHandler
     public void onServerConnected(ServerConnectedEvent e) {
-        final UUID uuid;
-        // Bungee may rewrite the uuid sent in the login success packet to an offline UUID,
-        // we need to manually find the correct uuid to lookup for, as ProxiedPlayer#getUniqueId will always return
-        // the online/correct UUID.
-        if (plugin.getProxy().getConfig().isIpForward()) {
-            uuid = e.getPlayer().getUniqueId();
-        } else {
-            uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + e.getPlayer().getName()).getBytes(StandardCharsets.UTF_8));
-        }
-
-        final UserConnection connection = Via.getManager().getConnectionManager().getClientConnection(uuid);
+        final UserConnection connection = getBackendConnection(e.getPlayer());
         if (connection != null) {
             // Update tracked UUID to the actual one set on the server
             connection.getProtocolInfo().setUuid(e.getPlayer().getUniqueId());
             if (!connection.has(BungeeStorage.class)) {
-                connection.put(new BungeeStorage(e.getServer()));
+                connection.put(new BungeeStorage(e.getPlayer(), e.getServer()));
             }
 
-            ConnectionDetails.sendConnectionDetails(connection, ConnectionDetails.PROXY_CHANNEL);
+            final ClientStorage clientStorage = ClientStorage.of(connection);
+            final byte[] connectionDetails = clientStorage != null ? clientStorage.connectionDetails(connection) : null;
+            if (connectionDetails != null) {
+                e.getServer().sendData(ConnectionDetails.PROXY_CHANNEL, connectionDetails);
+            } else {
+                ((ViaBungeePlatform) Via.getPlatform()).runOnEventLoop(connection,
+                    () -> ConnectionDetails.sendConnectionDetails(connection, ConnectionDetails.PROXY_CHANNEL));
+            }
+        }
+    }
+
+    static UserConnection getBackendConnection(final ProxiedPlayer player) {
+        final UserConnection frontend = BungeePlayerLinks.connection(player);
+        final ClientStorage storage = frontend != null ? frontend.get(ClientStorage.class) : null;
+        UUID uuid = storage != null ? storage.backendUuid() : null;
+        if (uuid == null) {
+            // Bungee may rewrite the uuid sent in the login success packet to an offline UUID,
+            // we need to manually find the correct uuid to lookup for, as ProxiedPlayer#getUniqueId will always return
+            // the online/correct UUID.
+            if (ProxyServer.getInstance().getConfig().isIpForward()) {
+                uuid = player.getUniqueId();
+            } else {
+                uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + player.getName()).getBytes(StandardCharsets.UTF_8));
+            }
+            if (storage != null) {
+                storage.setBackendUuid(uuid);
+            }
         }
+        return Via.getManager().getConnectionManager().getClientConnection(uuid);
     }
 
     @EventHandler
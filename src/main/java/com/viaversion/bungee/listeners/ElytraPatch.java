@@ -19,44 +19,68 @@ package com.viaversion.bungee.listeners;
 
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.UserConnection;
-import com.viaversion.viaversion.api.minecraft.entitydata.EntityData;
-import com.viaversion.viaversion.api.minecraft.entitydata.types.EntityDataTypes1_9;
-import com.viaversion.viaversion.api.protocol.packet.PacketWrapper;
+import com.viaversion.viaversion.api.protocol.ProtocolPathEntry;
+import com.viaversion.viaversion.api.protocol.packet.ClientboundPacketType;
+import com.viaversion.viaversion.api.protocol.packet.State;
+import com.viaversion.viaversion.api.protocol.packet.provider.PacketTypeMap;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.api.type.Types;
 import com.viaversion.viaversion.protocols.v1_8to1_9.Protocol1_8To1_9;
 import com.viaversion.viaversion.protocols.v1_8to1_9.packet.ClientboundPackets1_9;
 import com.viaversion.viaversion.protocols.v1_8to1_9.storage.EntityTracker1_9;
-import java.util.ArrayList;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import java.util.List;
-import net.md_5.bungee.api.event.ServerConnectedEvent;
-import net.md_5.bungee.api.plugin.Listener;
-import net.md_5.bungee.event.EventHandler;
-import net.md_5.bungee.event.EventPriority;
 
 /*
  * This patches https://github.com/ViaVersion/ViaVersion/issues/555
+ * Sends the player's entity data with the flags cleared, so the client stops gliding after switching servers.
+ * The entity data is the same for all 1.9+ clients, only the packet id depends on the client version.
  */
-public final class ElytraPatch implements Listener {
+public final class ElytraPatch {
 
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onServerConnected(ServerConnectedEvent event) {
-        UserConnection user = Via.getManager().getConnectionManager().getServerConnection(event.getPlayer().getUniqueId());
-        if (user == null) {
-            return;
-        }
+    private static final String SET_ENTITY_DATA = ClientboundPackets1_9.SET_ENTITY_DATA.getName();
+
+    private ElytraPatch() {
+    }
+
+    public static void register(final ServerSwitchCorrections corrections) {
+        corrections.registerConstant(ElytraPatch::applies, ElytraPatch::entityId, ElytraPatch::encode);
+    }
 
-        if (user.getProtocolInfo().getPipeline().contains(Protocol1_8To1_9.class)) {
-            EntityTracker1_9 tracker = user.getEntityTracker(Protocol1_8To1_9.class);
-            int entityId = tracker.getProvidedEntityId();
+    private static boolean applies(final UserConnection user) {
+        return user.getProtocolInfo().getPipeline().contains(Protocol1_8To1_9.class);
+    }
 
-            PacketWrapper wrapper = PacketWrapper.create(ClientboundPackets1_9.SET_ENTITY_DATA, null, user);
+    private static int entityId(final UserConnection user) {
+        // Read on the player's event loop
+        final EntityTracker1_9 tracker = user.getEntityTracker(Protocol1_8To1_9.class);
+        return tracker.getProvidedEntityId();
+    }
 
-            wrapper.write(Types.VAR_INT, entityId);
-            List<EntityData> dataList = new ArrayList<>();
-            dataList.add(new EntityData(0, EntityDataTypes1_9.BYTE, (byte) 0));
-            wrapper.write(Types.ENTITY_DATA_LIST1_9, dataList);
+    private static ByteBuf encode(final ProtocolVersion clientVersion) {
+        final ByteBuf buf = Unpooled.buffer(8);
+        Types.VAR_INT.writePrimitive(buf, packetId(clientVersion));
+        // Entity data index 0 of type byte with value 0, same encoding from 1.9 on, and the end marker
+        buf.writeByte(0);
+        buf.writeByte(0);
+        buf.writeByte(0);
+        buf.writeByte(0xFF);
+        return buf;
+    }
 
-            wrapper.scheduleSend(Protocol1_8To1_9.class);
+    private static int packetId(final ProtocolVersion clientVersion) {
+        final List<ProtocolPathEntry> path = Via.getManager().getProtocolManager().getProtocolPath(clientVersion, ProtocolVersion.v1_9);
+        if (path != null) {
+            // The first protocol on the path maps packets into the client's version
+            for (final ProtocolPathEntry entry : path) {
+                final PacketTypeMap<? extends ClientboundPacketType> types = entry.protocol().getPacketTypesProvider().mappedClientboundPacketTypes().get(State.PLAY);
+                final ClientboundPacketType type = types != null ? types.typeByName(SET_ENTITY_DATA) : null;
+                if (type != null) {
+                    return type.getId();
+                }
+            }
         }
+        return ClientboundPackets1_9.SET_ENTITY_DATA.getId();
     }
 }
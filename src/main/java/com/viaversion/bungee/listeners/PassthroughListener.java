@@ -0,0 +1,60 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.listeners;
+
+import com.viaversion.bungee.ViaBungeePlatform;
+import com.viaversion.bungee.platform.BungeePlayerLinks;
+import com.viaversion.bungee.platform.BungeeViaInjector;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.event.ServerConnectedEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+import net.md_5.bungee.event.EventPriority;
+
+/*
+ * Removes Via's handlers from frontend and backend connections which BungeeCord can talk to without translation, once logged in.
+ * A frontend's need for translation is fixed by its handshake, and every server switch creates a new backend connection,
+ * so neither is ever translated again after being detached.
+ */
+public final class PassthroughListener implements Listener {
+
+    private final BungeeViaInjector injector;
+
+    public PassthroughListener(BungeeViaInjector injector) {
+        this.injector = injector;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPostLogin(PostLoginEvent event) {
+        detachIfPassthrough(BungeePlayerLinks.connection(event.getPlayer()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onServerConnected(ServerConnectedEvent event) {
+        // The backend login is done, everything else reading Via's state of it has already run or been queued
+        detachIfPassthrough(ConnectionDetailsListener.getBackendConnection(event.getPlayer()));
+    }
+
+    private void detachIfPassthrough(final UserConnection connection) {
+        if (connection != null && !connection.shouldTransformPacket()) {
+            ((ViaBungeePlatform) Via.getPlatform()).runOnEventLoop(connection, () -> injector.detach(connection));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.listeners;
+
+import com.viaversion.bungee.platform.BungeePlayerLinks;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+import net.md_5.bungee.event.EventPriority;
+
+public final class PlayerLinkListener implements Listener {
+
+    // Before any other listener looks up the connection
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPostLogin(PostLoginEvent event) {
+        final UserConnection connection = Via.getManager().getConnectionManager().getServerConnection(event.getPlayer().getUniqueId());
+        if (connection != null) {
+            BungeePlayerLinks.link(event.getPlayer(), connection);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDisconnect(PlayerDisconnectEvent event) {
+        BungeePlayerLinks.unlink(event.getPlayer());
+    }
+}
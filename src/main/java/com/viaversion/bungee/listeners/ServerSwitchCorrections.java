@@ -0,0 +1,147 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.listeners;
+
+import com.viaversion.bungee.platform.BungeePlayerLinks;
+import com.viaversion.bungee.storage.ClientStorage;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.api.type.Types;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import net.md_5.bungee.api.event.ServerConnectedEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+import net.md_5.bungee.event.EventPriority;
+
+/*
+ * Runs all corrections of client state after a server switch in a single task on the player's event loop,
+ * once the login or respawn Bungee sends for the new server has been written to the client.
+ */
+public final class ServerSwitchCorrections implements Listener {
+
+    private final List<Correction> corrections = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a packet about the player's own entity that is the same for every player of a client version apart from the entity id.
+     * It is encoded once per client version and written to the clients past Via's encoder, together with the other constant packets in one flush.
+     *
+     * @param condition whether the packet should be sent to the player
+     * @param entityId  entity id of the player as seen by the client
+     * @param encoder   encodes the packet id followed by everything after the entity id, for the given client version
+     */
+    public void registerConstant(final Predicate<UserConnection> condition, final ToIntFunction<UserConnection> entityId,
+                                 final Function<ProtocolVersion, ByteBuf> encoder) {
+        corrections.add(new ConstantCorrection(condition, entityId, encoder, new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Registers a correction depending on the player's state, run on the player's event loop.
+     * Packets sent through Via's packet wrappers are flushed by Via itself.
+     *
+     * @param correction correction to run with the player's frontend connection
+     */
+    public void register(final Consumer<UserConnection> correction) {
+        corrections.add(new DynamicCorrection(correction));
+    }
+
+    /**
+     * Removes all corrections and releases their encoded packets.
+     */
+    public void clear() {
+        for (final Correction correction : corrections) {
+            if (correction instanceof ConstantCorrection constant) {
+                constant.encoded().values().forEach(packet -> packet.data().release());
+            }
+        }
+        corrections.clear();
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onServerConnected(ServerConnectedEvent event) {
+        if (corrections.isEmpty()) {
+            return;
+        }
+
+        final UserConnection connection = BungeePlayerLinks.connection(event.getPlayer());
+        final ClientStorage storage = connection != null ? connection.get(ClientStorage.class) : null;
+        if (storage != null) {
+            // Bungee only sends the login or respawn for the new server after this event, possibly after a configuration phase
+            storage.runAfterNextRespawn(() -> apply(connection));
+        }
+    }
+
+    private void apply(final UserConnection connection) {
+        // Missing once the connection has been switched to pass-through
+        final ChannelHandlerContext context = connection.getChannel().pipeline().context(Via.getManager().getInjector().getEncoderName());
+        boolean written = false;
+        for (final Correction correction : corrections) {
+            if (correction instanceof ConstantCorrection constant) {
+                if (context != null && constant.condition().test(connection)) {
+                    // Skip Via's encoder, the packet is already in the client's version
+                    context.write(constant.packet(connection, context));
+                    written = true;
+                }
+            } else if (correction instanceof DynamicCorrection dynamic) {
+                dynamic.correction().accept(connection);
+            }
+        }
+        if (written) {
+            context.flush();
+        }
+    }
+
+    private sealed interface Correction permits ConstantCorrection, DynamicCorrection {
+    }
+
+    private record ConstantCorrection(Predicate<UserConnection> condition, ToIntFunction<UserConnection> entityId,
+                                      Function<ProtocolVersion, ByteBuf> encoder, Map<ProtocolVersion, EncodedPacket> encoded) implements Correction {
+
+        ByteBuf packet(final UserConnection connection, final ChannelHandlerContext context) {
+            final EncodedPacket packet = encoded.computeIfAbsent(connection.getProtocolInfo().protocolVersion(), this::encode);
+            final ByteBuf data = packet.data();
+            final ByteBuf buf = context.alloc().buffer(10 + data.readableBytes());
+            Types.VAR_INT.writePrimitive(buf, packet.packetId());
+            Types.VAR_INT.writePrimitive(buf, entityId.applyAsInt(connection));
+            // Absolute read, the cached buffer is shared by all event loops
+            buf.writeBytes(data, data.readerIndex(), data.readableBytes());
+            return buf;
+        }
+
+        private EncodedPacket encode(final ProtocolVersion protocolVersion) {
+            final ByteBuf buf = encoder.apply(protocolVersion);
+            final int packetId = Types.VAR_INT.readPrimitive(buf);
+            return new EncodedPacket(packetId, buf);
+        }
+    }
+
+    private record EncodedPacket(int packetId, ByteBuf data) {
+    }
+
+    private record DynamicCorrection(Consumer<UserConnection> correction) implements Correction {
+    }
+}
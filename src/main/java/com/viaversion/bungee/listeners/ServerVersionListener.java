@@ -0,0 +1,115 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.listeners;
+
+import com.viaversion.bungee.ViaBungeeConfig;
+import com.viaversion.bungee.ViaBungeePlatform;
+import com.viaversion.bungee.service.ProbeResult;
+import com.viaversion.bungee.service.ProtocolDetectorService;
+import com.viaversion.bungee.storage.BackendStorage;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import java.util.List;
+import net.md_5.bungee.api.AbstractReconnectHandler;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.PendingConnection;
+import net.md_5.bungee.api.event.LoginEvent;
+import net.md_5.bungee.api.event.ServerConnectEvent;
+import net.md_5.bungee.api.event.ServerConnectedEvent;
+import net.md_5.bungee.api.event.ServerKickEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+import net.md_5.bungee.event.EventPriority;
+
+/*
+ * Learns server versions from players connecting to them, so servers with regular traffic rarely need to be pinged.
+ */
+public final class ServerVersionListener implements Listener {
+
+    private final ProtocolDetectorService protocolDetectorService;
+
+    public ServerVersionListener(ProtocolDetectorService protocolDetectorService) {
+        this.protocolDetectorService = protocolDetectorService;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(LoginEvent event) {
+        final ViaBungeePlatform platform = (ViaBungeePlatform) Via.getPlatform();
+        final ViaBungeeConfig config = platform.getBungeeConfig();
+        if (event.isCancelled() || !config.isBungeePingOnConnect()) {
+            return;
+        }
+
+        final ServerInfo target = firstServer(event.getConnection());
+        if (target == null) {
+            return;
+        }
+
+        // Login is async, so the player can wait for the version of their first server without blocking anything
+        event.registerIntent(platform.getPlugin());
+        ProtocolDetectorService.completeOnTimeout(protocolDetectorService.probeIfStale(target).copy(), ProbeResult.Outcome.TIMED_OUT, config.getBungeePingOnConnectTimeout())
+            .whenComplete((outcome, throwable) -> event.completeIntent(platform.getPlugin()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onServerConnect(ServerConnectEvent event) {
+        final ViaBungeeConfig config = ((ViaBungeePlatform) Via.getPlatform()).getBungeeConfig();
+        if (event.isCancelled() || !config.isBungeePingOnConnect()) {
+            return;
+        }
+
+        // Never wait here, this event is called on whatever thread connects the player, usually a Netty event loop
+        // The ping only refreshes the version for following connections
+        protocolDetectorService.probeIfStale(event.getTarget());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onServerConnected(ServerConnectedEvent event) {
+        final UserConnection connection = ConnectionDetailsListener.getBackendConnection(event.getPlayer());
+        if (connection == null) {
+            return;
+        }
+
+        // The server accepted the login with the version we translated to
+        final BackendStorage storage = connection.get(BackendStorage.class);
+        final String serverName = event.getServer().getInfo().getName();
+        if (storage != null && storage.serverName().equals(serverName)) {
+            protocolDetectorService.confirmVersion(serverName, storage.protocolVersion().getVersion());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onServerKick(ServerKickEvent event) {
+        if (event.getState() == ServerKickEvent.State.CONNECTING) {
+            // Possibly kicked for using an outdated version
+            protocolDetectorService.markDue(event.getKickedFrom().getName());
+        }
+    }
+
+    private static ServerInfo firstServer(final PendingConnection connection) {
+        // Same choice as Bungee makes without a reconnect handler, plugins may still pick another server
+        final ServerInfo forcedHost = AbstractReconnectHandler.getForcedHost(connection);
+        if (forcedHost != null) {
+            return forcedHost;
+        }
+
+        final List<String> priorities = connection.getListener().getServerPriority();
+        return priorities.isEmpty() ? null : ProxyServer.getInstance().getServerInfo(priorities.get(0));
+    }
+}
@@ -17,6 +17,7 @@
  */
 package com.viaversion.bungee.listeners;
 
+import com.viaversion.bungee.platform.BungeePlayerLinks;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.update.UpdateUtil;
@@ -29,7 +30,7 @@ public final class UpdateListener implements Listener {
     @EventHandler
     public void onJoin(PostLoginEvent e) {
         if (e.getPlayer().hasPermission("viaversion.update") && Via.getConfig().isCheckForUpdates()) {
-            final UserConnection connection = Via.getManager().getConnectionManager().getServerConnection(e.getPlayer().getUniqueId());
+            final UserConnection connection = BungeePlayerLinks.connection(e.getPlayer());
             if (connection != null) {
                 UpdateUtil.sendUpdateMessage(connection);
             }
@@ -0,0 +1,47 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.metrics;
+
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.packet.Direction;
+import com.viaversion.viaversion.platform.ViaEncodeHandler;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import java.util.List;
+
+public final class MeasuredEncodeHandler extends ViaEncodeHandler {
+
+    private final PacketRecorder recorder;
+
+    public MeasuredEncodeHandler(final UserConnection connection, final PacketMetrics metrics) {
+        super(connection);
+        this.recorder = new PacketRecorder(metrics, connection, connection.isClientSide() ? Direction.SERVERBOUND : Direction.CLIENTBOUND);
+    }
+
+    @Override
+    protected void encode(final ChannelHandlerContext ctx, final ByteBuf bytebuf, final List<Object> out) throws Exception {
+        final int length = bytebuf.readableBytes();
+        final int packetId = PacketMetrics.peekPacketId(bytebuf);
+        final long start = System.nanoTime();
+        try {
+            super.encode(ctx, bytebuf, out);
+        } finally {
+            recorder.record(packetId, length, System.nanoTime() - start);
+        }
+    }
+}
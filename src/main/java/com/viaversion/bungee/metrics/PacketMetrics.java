@@ -0,0 +1,106 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.metrics;
+
+import com.viaversion.viaversion.api.protocol.packet.Direction;
+import io.netty.buffer.ByteBuf;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects per packet translation timings of instrumented pipelines.
+ * Stats are kept per event loop thread, so that recording never contends, and are only merged when read.
+ */
+public final class PacketMetrics {
+
+    private volatile Map<StatsKey, PacketStats> stats = new ConcurrentHashMap<>();
+    private volatile int generation;
+
+    /**
+     * Returns the stats of the calling thread for the given direction and version pair.
+     *
+     * @param direction     direction of the recorded packets
+     * @param clientVersion protocol version of the client
+     * @param serverVersion protocol version of the server
+     * @return stats only to be written to by the calling thread
+     */
+    public PacketStats stats(final Direction direction, final int clientVersion, final int serverVersion) {
+        final StatsKey key = new StatsKey(Thread.currentThread(), direction, clientVersion, serverVersion);
+        return stats.computeIfAbsent(key, k -> new PacketStats());
+    }
+
+    /**
+     * Returns the recorded stats merged over all event loops.
+     *
+     * @return merged stats per direction and version pair
+     */
+    public Map<Entry, PacketStats> snapshot() {
+        final Map<Entry, PacketStats> merged = new HashMap<>();
+        for (final Map.Entry<StatsKey, PacketStats> entry : stats.entrySet()) {
+            final StatsKey key = entry.getKey();
+            final Entry mergedKey = new Entry(key.direction(), key.clientVersion(), key.serverVersion());
+            merged.computeIfAbsent(mergedKey, k -> new PacketStats()).merge(entry.getValue());
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the current generation, changed on every reset.
+     * Stats obtained in an older generation are no longer part of the snapshot and have to be fetched again.
+     *
+     * @return current generation
+     */
+    public int generation() {
+        return generation;
+    }
+
+    /**
+     * Drops all recorded stats. The map is swapped before the generation changes,
+     * so recorders noticing the new generation always fetch stats from the new map.
+     */
+    public synchronized void reset() {
+        stats = new ConcurrentHashMap<>();
+        generation++;
+    }
+
+    /**
+     * Reads the packet id at the reader index without moving it.
+     *
+     * @param buf packet buffer
+     * @return packet id, or -1 if none could be read
+     */
+    public static int peekPacketId(final ByteBuf buf) {
+        int value = 0;
+        int index = buf.readerIndex();
+        for (int i = 0; i < 5 && index < buf.writerIndex(); i++) {
+            final byte b = buf.getByte(index++);
+            value |= (b & 0x7F) << (i * 7);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    public record Entry(Direction direction, int clientVersion, int serverVersion) {
+    }
+
+    private record StatsKey(Thread thread, Direction direction, int clientVersion, int serverVersion) {
+    }
+}
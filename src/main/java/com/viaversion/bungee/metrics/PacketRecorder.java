@@ -0,0 +1,56 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.metrics;
+
+import com.viaversion.viaversion.api.connection.ProtocolInfo;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.packet.Direction;
+
+/**
+ * Records packets of a single connection and direction, caching the stats of the current version pair.
+ */
+final class PacketRecorder {
+
+    private final PacketMetrics metrics;
+    private final UserConnection connection;
+    private final Direction direction;
+    private PacketStats stats;
+    private int generation;
+    private int clientVersion;
+    private int serverVersion;
+
+    PacketRecorder(final PacketMetrics metrics, final UserConnection connection, final Direction direction) {
+        this.metrics = metrics;
+        this.connection = connection;
+        this.direction = direction;
+    }
+
+    void record(final int packetId, final int length, final long duration) {
+        final ProtocolInfo info = connection.getProtocolInfo();
+        final int clientVersion = info.protocolVersion().getVersion();
+        final int serverVersion = info.serverProtocolVersion().getVersion();
+        final int generation = metrics.generation();
+        if (stats == null || generation != this.generation || clientVersion != this.clientVersion || serverVersion != this.serverVersion) {
+            this.stats = metrics.stats(direction, clientVersion, serverVersion);
+            this.generation = generation;
+            this.clientVersion = clientVersion;
+            this.serverVersion = serverVersion;
+        }
+        stats.record(packetId, length, duration);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histograms and byte counts per packet id.
+ * Every instance only has a single writer, so values are published with lazy sets instead of atomic increments.
+ */
+public final class PacketStats {
+
+    public static final int PACKET_IDS = 256; // Higher ids are counted under the last one
+    public static final int BUCKETS = 24; // Bucket n counts durations below 2^n nanoseconds, the last one everything above
+    public static final long OVERFLOW_NANOS = 1L << (BUCKETS - 2); // Lower bound of the last bucket
+
+    private final AtomicLongArray histogram = new AtomicLongArray(PACKET_IDS * BUCKETS);
+    private final AtomicLongArray counts = new AtomicLongArray(PACKET_IDS);
+    private final AtomicLongArray bytes = new AtomicLongArray(PACKET_IDS);
+    private final AtomicLongArray nanos = new AtomicLongArray(PACKET_IDS);
+
+    public void record(final int packetId, final int length, final long duration) {
+        final int id = packetId < 0 || packetId >= PACKET_IDS ? PACKET_IDS - 1 : packetId;
+        final int bucket = Math.min(64 - Long.numberOfLeadingZeros(duration), BUCKETS - 1);
+        add(histogram, id * BUCKETS + bucket, 1);
+        add(counts, id, 1);
+        add(bytes, id, length);
+        add(nanos, id, duration);
+    }
+
+    void merge(final PacketStats other) {
+        for (int i = 0; i < histogram.length(); i++) {
+            add(histogram, i, other.histogram.get(i));
+        }
+        for (int i = 0; i < PACKET_IDS; i++) {
+            add(counts, i, other.counts.get(i));
+            add(bytes, i, other.bytes.get(i));
+            add(nanos, i, other.nanos.get(i));
+        }
+    }
+
+    public long count(final int packetId) {
+        return counts.get(packetId);
+    }
+
+    public long bytes(final int packetId) {
+        return bytes.get(packetId);
+    }
+
+    public long meanNanos(final int packetId) {
+        final long count = counts.get(packetId);
+        return count == 0 ? 0 : nanos.get(packetId) / count;
+    }
+
+    /**
+     * Returns the upper bound of the bucket containing the given percentile.
+     *
+     * @param packetId   packet id
+     * @param percentile percentile between 0 and 1
+     * @return upper bound in nanoseconds, {@link Long#MAX_VALUE} if the percentile falls into the last bucket
+     * starting at {@link #OVERFLOW_NANOS}, or 0 if nothing has been recorded
+     */
+    public long percentileNanos(final int packetId, final double percentile) {
+        final long count = counts.get(packetId);
+        if (count == 0) {
+            return 0;
+        }
+
+        final long target = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+            seen += histogram.get(packetId * BUCKETS + bucket);
+            if (seen >= target) {
+                return 1L << bucket;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static void add(final AtomicLongArray array, final int index, final long delta) {
+        array.lazySet(index, array.get(index) + delta);
+    }
+}
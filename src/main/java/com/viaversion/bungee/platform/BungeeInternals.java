@@ -0,0 +1,168 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.protocol.packet.ClientSettings;
+
+/**
+ * Access to BungeeCord internals that are not part of its API.
+ * <p>
+ * Every accessor is resolved once into a static final method handle so calls can be inlined by the JIT.
+ * Anything that can't be found is reported together when the class is initialized.
+ */
+public final class BungeeInternals {
+
+    public static final String INBOUND_BOSS = "inbound-boss";
+
+    private static final MethodHandle GET_CLIENT_ENTITY_ID;
+    private static final MethodHandle GET_SETTINGS;
+    private static final MethodHandle GET_PACKET_HANDLER;
+    private static final MethodHandle GET_TARGET;
+
+    static {
+        final Resolver resolver = new Resolver();
+        final Class<?> userConnectionClass = resolver.findClass("net.md_5.bungee.UserConnection");
+        final Class<?> handlerBossClass = resolver.findClass("net.md_5.bungee.netty.HandlerBoss");
+        final Class<?> packetHandlerClass = resolver.findClass("net.md_5.bungee.netty.PacketHandler");
+        final Class<?> serverConnectorClass = resolver.findClass("net.md_5.bungee.ServerConnector");
+        final Class<?> bungeeServerInfoClass = resolver.findClass("net.md_5.bungee.BungeeServerInfo");
+
+        GET_CLIENT_ENTITY_ID = resolver.findVirtual(userConnectionClass, "getClientEntityId", MethodType.methodType(int.class), MethodType.methodType(int.class, ProxiedPlayer.class));
+        GET_SETTINGS = resolver.findVirtual(userConnectionClass, "getSettings", MethodType.methodType(ClientSettings.class), MethodType.methodType(ClientSettings.class, ProxiedPlayer.class));
+        GET_PACKET_HANDLER = resolver.findGetter(handlerBossClass, "handler", packetHandlerClass, MethodType.methodType(Object.class, ChannelHandler.class));
+        GET_TARGET = resolver.findGetter(serverConnectorClass, "target", bungeeServerInfoClass, MethodType.methodType(ServerInfo.class, Object.class));
+        resolver.complete();
+    }
+
+    private BungeeInternals() {
+    }
+
+    /**
+     * Initializes all accessors, failing if any of them is missing.
+     */
+    public static void init() {
+        // Done in the static initializer
+    }
+
+    /**
+     * Returns the entity id the client has been given on its first join.
+     *
+     * @param player player
+     * @return client entity id
+     */
+    public static int clientEntityId(final ProxiedPlayer player) {
+        try {
+            return (int) GET_CLIENT_ENTITY_ID.invokeExact(player);
+        } catch (final Throwable e) {
+            throw new IllegalStateException("Failed to get client entity id of " + player.getName(), e);
+        }
+    }
+
+    /**
+     * Returns the last client settings sent by the player.
+     *
+     * @param player player
+     * @return client settings, or null if none have been sent yet
+     */
+    public static ClientSettings settings(final ProxiedPlayer player) {
+        try {
+            return (ClientSettings) GET_SETTINGS.invokeExact(player);
+        } catch (final Throwable e) {
+            throw new IllegalStateException("Failed to get client settings of " + player.getName(), e);
+        }
+    }
+
+    /**
+     * Returns the server a backend channel connects to.
+     *
+     * @param channel backend channel
+     * @return target server, or null if the channel isn't connecting to a server
+     */
+    public static ServerInfo targetServer(final Channel channel) {
+        final ChannelHandler handlerBoss = channel.pipeline().get(INBOUND_BOSS);
+        if (handlerBoss == null) {
+            return null;
+        }
+
+        try {
+            final Object serverConnector = (Object) GET_PACKET_HANDLER.invokeExact(handlerBoss);
+            return serverConnector != null ? (ServerInfo) GET_TARGET.invokeExact(serverConnector) : null;
+        } catch (final ClassCastException e) {
+            // Handler of another connection stage
+            return null;
+        } catch (final Throwable e) {
+            throw new IllegalStateException("Failed to get target server of " + channel, e);
+        }
+    }
+
+    private static final class Resolver {
+
+        private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        private final List<String> missing = new ArrayList<>();
+
+        private Class<?> findClass(final String name) {
+            try {
+                return Class.forName(name);
+            } catch (final ClassNotFoundException e) {
+                missing.add("class " + name);
+                return null;
+            }
+        }
+
+        private MethodHandle findVirtual(final Class<?> owner, final String name, final MethodType type, final MethodType exactType) {
+            if (owner == null) {
+                return null;
+            }
+
+            try {
+                return MethodHandles.privateLookupIn(owner, lookup).findVirtual(owner, name, type).asType(exactType);
+            } catch (final ReflectiveOperationException e) {
+                missing.add("method " + owner.getName() + "#" + name + type);
+                return null;
+            }
+        }
+
+        private MethodHandle findGetter(final Class<?> owner, final String name, final Class<?> type, final MethodType exactType) {
+            if (owner == null || type == null) {
+                return null;
+            }
+
+            try {
+                return MethodHandles.privateLookupIn(owner, lookup).findGetter(owner, name, type).asType(exactType);
+            } catch (final ReflectiveOperationException e) {
+                missing.add("field " + owner.getName() + "#" + name);
+                return null;
+            }
+        }
+
+        private void complete() {
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("Missing BungeeCord internals, try updating BungeeCord or ViaVersion: " + String.join(", ", missing));
+            }
+        }
+    }
+}
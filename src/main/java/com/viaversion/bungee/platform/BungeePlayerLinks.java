@@ -0,0 +1,87 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.bungee.storage.BungeeStorage;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+/**
+ * Links players and their frontend connections in both directions from login until disconnect or the channel closing,
+ * so neither has to be looked up by uuid.
+ */
+public final class BungeePlayerLinks {
+
+    private static final Map<ProxiedPlayer, UserConnection> CONNECTIONS = new ConcurrentHashMap<>();
+
+    private BungeePlayerLinks() {
+    }
+
+    public static void link(final ProxiedPlayer player, final UserConnection connection) {
+        connection.put(new BungeeStorage(player, null));
+        CONNECTIONS.put(player, connection);
+        // Don't rely on the disconnect event alone, a channel closing during login may never get one
+        if (connection.getChannel() != null) {
+            connection.getChannel().closeFuture().addListener(future -> {
+                if (CONNECTIONS.remove(player, connection)) {
+                    connection.remove(BungeeStorage.class);
+                }
+            });
+        }
+    }
+
+    public static void unlink(final ProxiedPlayer player) {
+        final UserConnection connection = CONNECTIONS.remove(player);
+        if (connection != null) {
+            connection.remove(BungeeStorage.class);
+        }
+    }
+
+    /**
+     * Returns the frontend connection of a player.
+     *
+     * @param player player
+     * @return frontend connection, or null if the player has no Via connection
+     */
+    public static UserConnection connection(final ProxiedPlayer player) {
+        final UserConnection connection = CONNECTIONS.get(player);
+        return connection != null ? connection : Via.getManager().getConnectionManager().getServerConnection(player.getUniqueId());
+    }
+
+    /**
+     * Returns the player a frontend or backend connection belongs to.
+     *
+     * @param connection connection
+     * @return player, or null if the player isn't online
+     */
+    public static ProxiedPlayer player(final UserConnection connection) {
+        final BungeeStorage storage = connection.get(BungeeStorage.class);
+        if (storage != null) {
+            return storage.player();
+        }
+
+        // Not linked yet
+        final UUID uuid = connection.getProtocolInfo().getUuid();
+        return uuid != null ? ProxyServer.getInstance().getPlayer(uuid) : null;
+    }
+}
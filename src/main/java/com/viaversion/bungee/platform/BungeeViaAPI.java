@@ -18,8 +18,17 @@
 package com.viaversion.bungee.platform;
 
 import com.viaversion.viaversion.ViaAPIBase;
+import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import io.netty.buffer.ByteBuf;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
 public final class BungeeViaAPI extends ViaAPIBase<ProxiedPlayer> {
@@ -33,4 +42,48 @@ public final class BungeeViaAPI extends ViaAPIBase<ProxiedPlayer> {
     public void sendRawPacket(ProxiedPlayer player, ByteBuf packet) throws IllegalArgumentException {
         sendRawPacket(player.getUniqueId(), packet);
     }
+
+    /**
+     * Sends a raw packet to many players, encoding it only once per client protocol version.
+     * Players of the same version share the encoded buffer. Players without a Via connection are skipped.
+     *
+     * @param players players to send the packet to
+     * @param encoder encodes the packet, including its id, for the given client version; the buffer is released once sent
+     */
+    public void broadcastRawPacket(Collection<ProxiedPlayer> players, Function<ProtocolVersion, ByteBuf> encoder) {
+        for (final Map.Entry<ProtocolVersion, List<UserConnection>> group : groupByVersion(players).entrySet()) {
+            final ByteBuf packet = encoder.apply(group.getKey());
+            try {
+                for (final UserConnection connection : group.getValue()) {
+                    connection.sendRawPacket(packet.retainedDuplicate());
+                }
+            } finally {
+                packet.release();
+            }
+        }
+    }
+
+    /**
+     * Sends a legacy formatted message to many players, parsing it only once.
+     *
+     * @param players players to send the message to
+     * @param message legacy formatted message
+     */
+    public void broadcastMessage(Collection<ProxiedPlayer> players, String message) {
+        final BaseComponent component = TextComponent.fromLegacy(message);
+        for (final ProxiedPlayer player : players) {
+            player.sendMessage(component);
+        }
+    }
+
+    private Map<ProtocolVersion, List<UserConnection>> groupByVersion(final Collection<ProxiedPlayer> players) {
+        final Map<ProtocolVersion, List<UserConnection>> groups = new HashMap<>();
+        for (final ProxiedPlayer player : players) {
+            final UserConnection connection = BungeePlayerLinks.connection(player);
+            if (connection != null) {
+                groups.computeIfAbsent(connection.getProtocolInfo().protocolVersion(), version -> new ArrayList<>()).add(connection);
+            }
+        }
+        return groups;
+    }
 }
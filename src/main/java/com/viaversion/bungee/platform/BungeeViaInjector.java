@@ -17,6 +17,11 @@
  */
 package com.viaversion.bungee.platform;
 
+import com.viaversion.bungee.ViaBungeePlatform;
+import com.viaversion.bungee.metrics.MeasuredDecodeHandler;
+import com.viaversion.bungee.metrics.MeasuredEncodeHandler;
+import com.viaversion.bungee.metrics.PacketMetrics;
+import com.viaversion.bungee.storage.ClientStorage;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.platform.ViaInjector;
@@ -31,32 +36,37 @@ import com.viaversion.viaversion.protocol.ProtocolPipelineImpl;
 import com.viaversion.viaversion.util.ReflectionUtil;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
-import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.ChannelOutboundHandlerAdapter;
-import io.netty.channel.ChannelPromise;
-import java.util.ArrayList;
+import io.netty.channel.ChannelPipeline;
+import io.netty.util.AttributeKey;
 import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
 import net.md_5.bungee.api.ProxyServer;
-import net.md_5.bungee.protocol.PacketWrapper;
 import net.md_5.bungee.protocol.ProtocolConstants;
 import net.md_5.bungee.protocol.channel.BungeeChannelInitializer;
-import net.md_5.bungee.protocol.packet.SetCompression;
 
 public final class BungeeViaInjector implements ViaInjector {
 
     public static final String PACKET_DECODER = "packet-decoder";
     public static final String PACKET_ENCODER = "packet-encoder";
+    public static final String DECOMPRESS = "decompress";
 
     public static final String VIA_DECODE_REORDER = "via-decode-reorder";
     public static final String VIA_ENCODE_REORDER = "via-encode-reorder";
 
-    private final List<Channel> injectedChannels = new ArrayList<>();
+    static final AttributeKey<ClientStorage> CLIENT_STORAGE = AttributeKey.valueOf("via-client-storage");
+
+    private final Set<Channel> injectedChannels = ConcurrentHashMap.newKeySet();
+    private PacketMetrics packetMetrics;
 
     @Override
     public void inject() {
+        if (((ViaBungeePlatform) Via.getPlatform()).getBungeeConfig().isBungeePacketMetrics()) {
+            packetMetrics = new PacketMetrics();
+        }
+
         final ProxyServer.Unsafe unsafe = ProxyServer.getInstance().unsafe();
         final BungeeChannelInitializer frontendConnection = unsafe.getFrontendChannelInitializer();
         final BungeeChannelInitializer backendConnection = unsafe.getBackendChannelInitializer();
@@ -64,7 +74,7 @@ public final class BungeeViaInjector implements ViaInjector {
         unsafe.setFrontendChannelInitializer(BungeeChannelInitializer.create(channel -> {
             final boolean accepted = frontendConnection.getChannelAcceptor().accept(channel);
             if (accepted) {
-                injectedChannels.add(channel);
+                trackChannel(channel);
                 injectPipeline(channel, false);
             }
             return accepted;
@@ -72,7 +82,7 @@ public final class BungeeViaInjector implements ViaInjector {
         unsafe.setBackendChannelInitializer(BungeeChannelInitializer.create(channel -> {
             final boolean accepted = backendConnection.getChannelAcceptor().accept(channel);
             if (accepted) {
-                injectedChannels.add(channel);
+                trackChannel(channel);
                 injectPipeline(channel, true);
             }
             return accepted;
@@ -80,45 +90,91 @@ public final class BungeeViaInjector implements ViaInjector {
         Via.getPlatform().getLogger().info("Successfully injected ViaVersion into BungeeCord!");
     }
 
-    private void injectPipeline(final Channel channel, final boolean clientside) {
+    private void trackChannel(final Channel channel) {
+        injectedChannels.add(channel);
+        channel.closeFuture().addListener(future -> injectedChannels.remove(channel));
+    }
+
+    UserConnection injectPipeline(final Channel channel, final boolean clientside) {
         final UserConnection connection = new UserConnectionImpl(channel, clientside);
         new ProtocolPipelineImpl(connection);
+        if (!clientside) {
+            final ClientStorage storage = new ClientStorage();
+            connection.put(storage);
+            channel.attr(CLIENT_STORAGE).set(storage);
+        }
 
-        final ViaDecodeHandler decode = new ViaDecodeHandler(connection);
-        final ViaEncodeHandler encode = new ViaEncodeHandler(connection);
+        channel.pipeline().addBefore(PACKET_ENCODER, Via.getManager().getInjector().getEncoderName(), createEncoder(connection));
+        injectDecodeHandlers(channel, createDecoder(connection));
+        return connection;
+    }
 
-        injectDecoder(channel, decode);
-        channel.pipeline().addBefore(PACKET_ENCODER, Via.getManager().getInjector().getEncoderName(), encode);
+    private ViaEncodeHandler createEncoder(final UserConnection connection) {
+        return packetMetrics != null ? new MeasuredEncodeHandler(connection, packetMetrics) : new ViaEncodeHandler(connection);
+    }
 
-        channel.pipeline().addAfter(PACKET_ENCODER, VIA_ENCODE_REORDER, new ChannelOutboundHandlerAdapter() {
+    private ViaDecodeHandler createDecoder(final UserConnection connection) {
+        return packetMetrics != null ? new MeasuredDecodeHandler(connection, packetMetrics) : new ViaDecodeHandler(connection);
+    }
 
-            @Override
-            public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) throws Exception {
-                if (msg instanceof SetCompression) {
-                    channel.eventLoop().execute(() -> injectDecoder(channel, decode));
-                }
-                super.write(ctx, msg, promise);
-            }
-        });
+    private void injectDecodeHandlers(final Channel channel, final ViaDecodeHandler decode) {
+        channel.pipeline().addBefore(PACKET_DECODER, Via.getManager().getInjector().getDecoderName(), decode);
+        channel.pipeline().addAfter(PACKET_ENCODER, VIA_ENCODE_REORDER, ViaEncodeReorderHandler.INSTANCE);
+        channel.pipeline().addAfter(PACKET_DECODER, VIA_DECODE_REORDER, ViaDecodeReorderHandler.INSTANCE);
+    }
+
+    static void reorderDecoder(final ChannelPipeline pipeline) {
+        final String decoder = Via.getManager().getInjector().getDecoderName();
+        if (pipeline.get(decoder) == null || isDecoderInPlace(pipeline, decoder)) {
+            return;
+        }
 
-        channel.pipeline().addAfter(PACKET_DECODER, VIA_DECODE_REORDER, new ChannelInboundHandlerAdapter() {
+        final ChannelHandler handler = pipeline.remove(decoder);
+        pipeline.addBefore(PACKET_DECODER, decoder, handler);
+    }
 
-            @Override
-            public void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
-                super.channelRead(ctx, msg);
-                if (msg instanceof PacketWrapper packetWrapper && packetWrapper.packet instanceof SetCompression) {
-                    injectDecoder(channel, decode);
-                }
-            }
-        });
+    static boolean hasCompressionInPlace(final ChannelPipeline pipeline) {
+        return pipeline.get(DECOMPRESS) != null && isDecoderInPlace(pipeline, Via.getManager().getInjector().getDecoderName());
     }
 
-    private void injectDecoder(final Channel channel, final ViaDecodeHandler handler) {
-        final String decoder = Via.getManager().getInjector().getDecoderName();
-        if (channel.pipeline().get(decoder) != null) {
-            channel.pipeline().remove(decoder);
+    private static boolean isDecoderInPlace(final ChannelPipeline pipeline, final String decoder) {
+        // Bungee adds its handlers directly in front of the packet decoder, which is where the Via decoder has to stay
+        final List<String> names = pipeline.names();
+        return names.indexOf(decoder) + 1 == names.indexOf(PACKET_DECODER);
+    }
+
+    /**
+     * Removes Via's encoder and decoder from a connection that doesn't need any translation.
+     * Frontend connections keep the shared reorder handlers, as they record the client state backend connections are translated with,
+     * backend connections lose them as well.
+     * Via doesn't track the connection's state from then on, so it is never translated again.
+     * Has to be called from the channel's event loop.
+     *
+     * @param connection the connection to switch to pass-through
+     */
+    public void detach(final UserConnection connection) {
+        final ChannelPipeline pipeline = connection.getChannel().pipeline();
+        removeIfPresent(pipeline, Via.getManager().getInjector().getDecoderName());
+        removeIfPresent(pipeline, Via.getManager().getInjector().getEncoderName());
+        if (connection.isClientSide()) {
+            removeIfPresent(pipeline, VIA_DECODE_REORDER);
+            removeIfPresent(pipeline, VIA_ENCODE_REORDER);
+        }
+    }
+
+    private static void removeIfPresent(final ChannelPipeline pipeline, final String name) {
+        if (pipeline.get(name) != null) {
+            pipeline.remove(name);
         }
-        channel.pipeline().addBefore(PACKET_DECODER, decoder, handler);
+    }
+
+    /**
+     * Returns the packet metrics of instrumented pipelines.
+     *
+     * @return packet metrics, or null if disabled
+     */
+    public PacketMetrics getPacketMetrics() {
+        return packetMetrics;
     }
 
     @Override
@@ -146,7 +202,7 @@ public final class BungeeViaInjector implements ViaInjector {
 
         // Generate information about current injections
         JsonArray injectedChannelInitializers = new JsonArray();
-        for (Channel channel : this.injectedChannels) {
+        for (Channel channel : List.copyOf(this.injectedChannels)) {
             JsonObject channelInfo = new JsonObject();
             channelInfo.addProperty("channelClass", channel.getClass().getName());
 
@@ -20,11 +20,15 @@ package com.viaversion.bungee.platform;
 import com.viaversion.bungee.ViaBungeePlatform;
 import com.viaversion.bungee.listeners.ConnectionDetailsListener;
 import com.viaversion.bungee.listeners.ElytraPatch;
+import com.viaversion.bungee.listeners.PassthroughListener;
+import com.viaversion.bungee.listeners.PlayerLinkListener;
+import com.viaversion.bungee.listeners.ServerVersionListener;
 import com.viaversion.bungee.listeners.UpdateListener;
 import com.viaversion.bungee.providers.BungeeEntityIdProvider;
 import com.viaversion.bungee.providers.BungeeMainHandProvider;
 import com.viaversion.bungee.providers.BungeeVersionProvider;
 import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.platform.PlatformTask;
 import com.viaversion.viaversion.api.platform.ViaPlatformLoader;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.api.protocol.version.VersionProvider;
@@ -35,12 +39,11 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.plugin.Listener;
-import net.md_5.bungee.api.scheduler.ScheduledTask;
 
 public final class BungeeViaLoader implements ViaPlatformLoader {
 
     private final Set<Listener> listeners = new HashSet<>();
-    private final Set<ScheduledTask> tasks = new HashSet<>();
+    private final Set<PlatformTask<?>> tasks = new HashSet<>();
     private final ViaBungeePlatform plugin;
 
     public BungeeViaLoader(ViaBungeePlatform plugin) {
@@ -54,29 +57,43 @@ public final class BungeeViaLoader implements ViaPlatformLoader {
 
     @Override
     public void load() {
+        // Fail early if any of the used Bungee internals are missing
+        BungeeInternals.init();
+
         // Listeners
+        registerListener(new PlayerLinkListener());
         registerListener(new UpdateListener());
-        registerListener(new ConnectionDetailsListener(plugin));
+        registerListener(new ConnectionDetailsListener());
+        registerListener(new ServerVersionListener(plugin.protocolDetectorService()));
+        registerListener(plugin.serverSwitchCorrections());
 
         final ProtocolVersion protocolVersion = Via.getAPI().getServerVersion().lowestSupportedProtocolVersion();
         if (protocolVersion.olderThan(ProtocolVersion.v1_9)) {
-            registerListener(new ElytraPatch());
+            ElytraPatch.register(plugin.serverSwitchCorrections());
+        }
+        if (plugin.getBungeeConfig().isBungeePassthrough()) {
+            registerListener(new PassthroughListener((BungeeViaInjector) Via.getManager().getInjector()));
         }
 
         // Providers
-        Via.getManager().getProviders().use(VersionProvider.class, new BungeeVersionProvider());
-        Via.getManager().getProviders().use(EntityIdProvider.class, new BungeeEntityIdProvider(plugin));
+        final BungeeVersionProvider versionProvider = new BungeeVersionProvider();
+        Via.getManager().getProviders().use(VersionProvider.class, versionProvider);
+        // Other platforms register their versions while enabling
+        Via.getManager().addPostEnableListener(() -> {
+            versionProvider.rebuildVersionTable();
+            plugin.protocolDetectorService().reloadVersions();
+        });
+        Via.getManager().getProviders().use(EntityIdProvider.class, new BungeeEntityIdProvider());
 
         if (protocolVersion.olderThan(ProtocolVersion.v1_9)) {
             Via.getManager().getProviders().use(MainHandProvider.class, new BungeeMainHandProvider());
         }
 
-        if (plugin.getBungeeConfig().getBungeePingInterval() > 0) {
-            tasks.add(plugin.getProxy().getScheduler().schedule(
-                plugin.getPlugin(),
-                () -> Via.proxyPlatform().protocolDetectorService().probeAllServers(),
-                0, plugin.getBungeeConfig().getBungeePingInterval(),
-                TimeUnit.SECONDS
+        final int pingInterval = plugin.getBungeeConfig().getBungeePingInterval();
+        if (pingInterval > 0) {
+            tasks.add(plugin.runRepeatingAsync(
+                () -> plugin.protocolDetectorService().probeDueServers(TimeUnit.SECONDS.toMillis(pingInterval)),
+                pingInterval * 20L
             ));
         }
     }
@@ -87,9 +104,12 @@ public final class BungeeViaLoader implements ViaPlatformLoader {
             ProxyServer.getInstance().getPluginManager().unregisterListener(listener);
         }
         listeners.clear();
-        for (ScheduledTask task : tasks) {
+        for (PlatformTask<?> task : tasks) {
             task.cancel();
         }
         tasks.clear();
+        plugin.serverSwitchCorrections().clear();
+        plugin.protocolDetectorService().cancelPendingProbes();
+        plugin.protocolDetectorService().savePendingVersions();
     }
 }
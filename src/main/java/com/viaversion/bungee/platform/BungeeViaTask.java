@@ -18,12 +18,12 @@
 package com.viaversion.bungee.platform;
 
 import com.viaversion.viaversion.api.platform.PlatformTask;
-import net.md_5.bungee.api.scheduler.ScheduledTask;
+import java.util.concurrent.Future;
 
-public record BungeeViaTask(ScheduledTask task) implements PlatformTask<ScheduledTask> {
+public record BungeeViaTask(Future<?> task) implements PlatformTask<Future<?>> {
 
     @Override
     public void cancel() {
-        task.cancel();
+        task.cancel(false);
     }
 }
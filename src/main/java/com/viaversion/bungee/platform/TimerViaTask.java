@@ -0,0 +1,83 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.viaversion.api.platform.PlatformTask;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delayed or repeating task waiting in the wheel timer of a {@link ViaTaskExecutor}.
+ * Repeating tasks are put back into the wheel each time they are handed to a worker.
+ */
+public final class TimerViaTask implements PlatformTask<Timeout>, TimerTask {
+
+    private final ViaTaskExecutor executor;
+    private final Runnable task;
+    private final long periodTicks;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Timeout timeout;
+    private volatile boolean cancelled;
+
+    TimerViaTask(final ViaTaskExecutor executor, final Runnable task, final long periodTicks) {
+        this.executor = executor;
+        this.task = task;
+        this.periodTicks = periodTicks;
+    }
+
+    void start(final Timer timer, final long delayTicks) {
+        timeout = timer.newTimeout(this, delayTicks * ViaTaskExecutor.TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run(final Timeout timeout) {
+        if (cancelled) {
+            return;
+        }
+        if (periodTicks == 0) {
+            executor.execute(task);
+            return;
+        }
+
+        start(timeout.timer(), periodTicks);
+        // Skip this period if the previous run is still going
+        if (running.compareAndSet(false, true)) {
+            final Future<?> future = executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    running.set(false);
+                }
+            });
+            if (future.isCancelled()) {
+                // Rejected, try again next period
+                running.set(false);
+            }
+        }
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        timeout.cancel();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.bungee.storage.ClientStorage;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import net.md_5.bungee.protocol.DefinedPacket;
+import net.md_5.bungee.protocol.PacketWrapper;
+import net.md_5.bungee.protocol.packet.ClientSettings;
+import net.md_5.bungee.protocol.packet.SetCompression;
+
+@ChannelHandler.Sharable
+final class ViaDecodeReorderHandler extends ChannelInboundHandlerAdapter {
+
+    static final ViaDecodeReorderHandler INSTANCE = new ViaDecodeReorderHandler();
+
+    private ViaDecodeReorderHandler() {
+    }
+
+    @Override
+    public void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
+        if (!(msg instanceof PacketWrapper packetWrapper)) {
+            super.channelRead(ctx, msg);
+            return;
+        }
+
+        // Capture before passing it on, as the packet is handled and its wrapper released further down the pipeline
+        final DefinedPacket packet = packetWrapper.packet;
+        if (packet instanceof ClientSettings settings) {
+            // Same instance Bungee keeps as the player's settings
+            final ClientStorage storage = ctx.channel().attr(BungeeViaInjector.CLIENT_STORAGE).get();
+            if (storage != null) {
+                storage.setSettings(settings);
+            }
+        }
+
+        super.channelRead(ctx, msg);
+        if (packet instanceof SetCompression) {
+            BungeeViaInjector.reorderDecoder(ctx.pipeline());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.bungee.storage.ClientStorage;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import net.md_5.bungee.protocol.packet.Login;
+import net.md_5.bungee.protocol.packet.Respawn;
+import net.md_5.bungee.protocol.packet.SetCompression;
+
+@ChannelHandler.Sharable
+final class ViaEncodeReorderHandler extends ChannelOutboundHandlerAdapter {
+
+    static final ViaEncodeReorderHandler INSTANCE = new ViaEncodeReorderHandler();
+
+    private ViaEncodeReorderHandler() {
+    }
+
+    @Override
+    public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) throws Exception {
+        // The decompressor is only added by Bungee after the packet has been written
+        if (msg instanceof SetCompression && !BungeeViaInjector.hasCompressionInPlace(ctx.pipeline())) {
+            final ChannelPipeline pipeline = ctx.pipeline();
+            ctx.channel().eventLoop().execute(() -> BungeeViaInjector.reorderDecoder(pipeline));
+        } else if (msg instanceof Login || msg instanceof Respawn) {
+            final ClientStorage storage = ctx.channel().attr(BungeeViaInjector.CLIENT_STORAGE).get();
+            if (storage != null) {
+                if (msg instanceof Login login) {
+                    storage.setEntityId(login.getEntityId());
+                }
+
+                final Runnable respawnTask = storage.takeRespawnTask();
+                if (respawnTask != null) {
+                    // Runs after the packet has made it through Via's encoder, so the client is in the new world's play state
+                    ctx.channel().eventLoop().execute(respawnTask);
+                }
+            }
+        }
+        super.write(ctx, msg, promise);
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.viaversion.libs.gson.JsonObject;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded executor owned by Via, so its tasks don't compete with other plugins in Bungee's scheduler and can be observed.
+ * Tasks beyond the queue size never run on the submitting thread. Other threads wait for queue space,
+ * while Netty event loops and Via's own threads must not block, so their tasks are rejected, counted and logged.
+ * With virtual threads, every task gets its own thread and a semaphore limits how many of them run at once.
+ * Delayed and repeating tasks wait in a hashed wheel timer with a resolution of one tick, which hands them to the workers.
+ */
+public final class ViaTaskExecutor {
+
+    static final long TICK_MILLIS = 50;
+    private static final long REJECTION_LOG_INTERVAL_MILLIS = 60_000;
+
+    private final Logger logger;
+    private final ExecutorService workers;
+    private final ThreadPoolExecutor platformWorkers; // Null with virtual threads
+    private final Semaphore runningPermits; // Null with platform threads
+    private final int threads;
+    private final HashedWheelTimer timer;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final AtomicLong lastRejectionLog = new AtomicLong();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param threads        maximum number of tasks running at once
+     * @param queueSize      maximum number of tasks waiting for a platform worker thread
+     * @param virtualThreads whether to run every task on its own virtual thread if the JVM supports them
+     * @param logger         logger for task errors
+     */
+    public ViaTaskExecutor(final int threads, final int queueSize, final boolean virtualThreads, final Logger logger) {
+        this.logger = logger;
+        this.threads = Math.max(1, threads);
+
+        final ExecutorService virtualWorkers = virtualThreads ? virtualThreadExecutor() : null;
+        if (virtualThreads && virtualWorkers == null) {
+            logger.warning("Virtual threads require Java 21 or newer, using platform threads instead");
+        }
+
+        if (virtualWorkers != null) {
+            this.workers = virtualWorkers;
+            this.platformWorkers = null;
+            this.runningPermits = new Semaphore(this.threads);
+        } else {
+            this.platformWorkers = new ThreadPoolExecutor(this.threads, this.threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueSize)), threadFactory("Via Worker #"), this::queueFull);
+            this.platformWorkers.allowCoreThreadTimeOut(true);
+            this.workers = platformWorkers;
+            this.runningPermits = null;
+        }
+
+        // One wheel slot per tick, scheduling and cancelling is O(1) however many tasks are pending
+        this.timer = new HashedWheelTimer(threadFactory("Via Timer #"), TICK_MILLIS, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * Runs the task on a worker thread.
+     *
+     * @param task task to run
+     * @return future to cancel the task
+     */
+    public Future<?> execute(final Runnable task) {
+        try {
+            return workers.submit(new MeasuredTask(task));
+        } catch (final RejectedExecutionException e) {
+            // Only thrown by the virtual thread executor once shut down
+            final FutureTask<?> future = new FutureTask<>(task, null);
+            reject(future, "shut down");
+            return future;
+        }
+    }
+
+    private void queueFull(final Runnable task, final ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            reject(task, "shut down");
+            return;
+        }
+
+        final Thread thread = Thread.currentThread();
+        if (thread instanceof FastThreadLocalThread || thread instanceof WorkerThread) {
+            // Event loops, the timer and the workers themselves would stall everything waiting on them
+            reject(task, "full");
+            return;
+        }
+
+        blocked.increment();
+        try {
+            executor.getQueue().put(task);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(task, "full");
+            return;
+        }
+        if (executor.isShutdown() && executor.getQueue().remove(task)) {
+            // Shut down while waiting, nothing takes it from the queue anymore
+            reject(task, "shut down");
+        } else if (executor.getPoolSize() == 0) {
+            // Idle workers may have timed out while this thread was waiting
+            executor.prestartCoreThread();
+        }
+    }
+
+    private void reject(final Runnable task, final String reason) {
+        rejected.increment();
+        if (task instanceof Future<?> future) {
+            // Don't leave anyone waiting on a task that never runs
+            future.cancel(false);
+        }
+
+        final long now = System.currentTimeMillis();
+        final long lastLog = lastRejectionLog.get();
+        if (now - lastLog >= REJECTION_LOG_INTERVAL_MILLIS && lastRejectionLog.compareAndSet(lastLog, now)) {
+            logger.warning("Rejected a Via task, the executor is " + reason + " (" + rejected.sum() + " rejected tasks in total)");
+        }
+    }
+
+    /**
+     * Runs the task on a worker thread after the given number of ticks.
+     *
+     * @param task  task to run
+     * @param delay delay in ticks
+     * @return task to cancel the run before it is handed to a worker
+     */
+    public TimerViaTask schedule(final Runnable task, final long delay) {
+        final TimerViaTask timerTask = new TimerViaTask(this, task, 0);
+        timerTask.start(timer, delay);
+        return timerTask;
+    }
+
+    /**
+     * Repeatedly runs the task on a worker thread, skipping a period if the previous run hasn't finished yet.
+     *
+     * @param task   task to run
+     * @param period ticks between runs
+     * @return task to cancel further runs
+     */
+    public TimerViaTask scheduleRepeating(final Runnable task, final long period) {
+        final TimerViaTask timerTask = new TimerViaTask(this, task, Math.max(1, period));
+        timerTask.start(timer, 0);
+        return timerTask;
+    }
+
+    /**
+     * Stops accepting new tasks and waits briefly for running ones to finish.
+     */
+    public void shutdown() {
+        timer.stop();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Some Via tasks did not finish in time: " + workers.shutdownNow().size() + " queued tasks dropped");
+            }
+        } catch (final InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public JsonObject dump() {
+        final long completedTasks = completed.sum();
+        final JsonObject object = new JsonObject();
+        object.addProperty("virtualThreads", platformWorkers == null);
+        if (platformWorkers != null) {
+            object.addProperty("threads", platformWorkers.getPoolSize());
+            object.addProperty("activeThreads", platformWorkers.getActiveCount());
+            object.addProperty("queueDepth", platformWorkers.getQueue().size());
+        } else {
+            object.addProperty("activeThreads", threads - runningPermits.availablePermits());
+            object.addProperty("queueDepth", runningPermits.getQueueLength());
+        }
+        object.addProperty("scheduledTasks", timer.pendingTimeouts());
+        object.addProperty("completedTasks", completedTasks);
+        object.addProperty("rejectedTasks", rejected.sum());
+        object.addProperty("blockedSubmissions", blocked.sum());
+        object.addProperty("averageWaitMicros", completedTasks != 0 ? TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum() / completedTasks) : 0);
+        object.addProperty("maxWaitMicros", TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()));
+        object.addProperty("averageRunMicros", completedTasks != 0 ? TimeUnit.NANOSECONDS.toMicros(totalRunNanos.sum() / completedTasks) : 0);
+        return object;
+    }
+
+    private static ThreadFactory threadFactory(final String namePrefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new WorkerThread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static ExecutorService virtualThreadExecutor() {
+        // Compiled against Java 17, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Via Worker #", 1).factory())
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builderClass.getMethod("name", String.class, long.class).invoke(builder, "Via Worker #", 1L);
+            final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (final ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private final class MeasuredTask implements Runnable {
+
+        private final Runnable task;
+        private final long submittedNanos = System.nanoTime();
+
+        private MeasuredTask(final Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (runningPermits != null) {
+                // Blocking only parks this task's own virtual thread
+                runningPermits.acquireUninterruptibly();
+            }
+
+            final long startNanos = System.nanoTime();
+            final long waitNanos = startNanos - submittedNanos;
+            try {
+                task.run();
+            } catch (final Throwable t) {
+                logger.log(Level.SEVERE, "Error running Via task", t);
+            } finally {
+                totalWaitNanos.add(waitNanos);
+                maxWaitNanos.accumulate(waitNanos);
+                totalRunNanos.add(System.nanoTime() - startNanos);
+                completed.increment();
+                if (runningPermits != null) {
+                    runningPermits.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Platform thread of the workers or the timer, which must never wait for the executor itself.
+     */
+    private static final class WorkerThread extends Thread {
+
+        private WorkerThread(final Runnable task, final String name) {
+            super(task, name);
+        }
+    }
+}
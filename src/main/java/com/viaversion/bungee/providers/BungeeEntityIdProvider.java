@@ -17,33 +17,24 @@
  */
 package com.viaversion.bungee.providers;
 
-import com.viaversion.bungee.ViaBungeePlatform;
+import com.viaversion.bungee.platform.BungeeInternals;
+import com.viaversion.bungee.platform.BungeePlayerLinks;
+import com.viaversion.bungee.storage.ClientStorage;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.protocols.v1_8to1_9.provider.EntityIdProvider;
-import java.lang.reflect.Method;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
 public final class BungeeEntityIdProvider extends EntityIdProvider {
 
-    private static final Method GET_CLIENT_ENTITY_ID;
-
-    static {
-        try {
-            GET_CLIENT_ENTITY_ID = Class.forName("net.md_5.bungee.UserConnection").getDeclaredMethod("getClientEntityId");
-        } catch (NoSuchMethodException | ClassNotFoundException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private final ViaBungeePlatform plugin;
-
-    public BungeeEntityIdProvider(ViaBungeePlatform plugin) {
-        this.plugin = plugin;
-    }
-
     @Override
     public int getEntityId(UserConnection user) throws Exception {
-        ProxiedPlayer player = this.plugin.getProxy().getPlayer(user.getProtocolInfo().getUuid());
-        return (int) GET_CLIENT_ENTITY_ID.invoke(player);
+        final ClientStorage storage = ClientStorage.of(user);
+        if (storage != null && storage.entityId() != -1) {
+            return storage.entityId();
+        }
+
+        // Nothing has been sent to the client yet
+        ProxiedPlayer player = BungeePlayerLinks.player(user);
+        return BungeeInternals.clientEntityId(player);
     }
 }
@@ -17,28 +17,19 @@
  */
 package com.viaversion.bungee.providers;
 
+import com.viaversion.bungee.platform.BungeeInternals;
+import com.viaversion.bungee.platform.BungeePlayerLinks;
+import com.viaversion.bungee.storage.ClientStorage;
 import com.viaversion.viaversion.api.Via;
 import com.viaversion.viaversion.api.connection.ProtocolInfo;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.protocols.v1_8to1_9.provider.MainHandProvider;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.logging.Level;
-import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.protocol.packet.ClientSettings;
 
 // This solves the wrong main hand issue when you join with BungeeCord on a 1.8 server, and switch to a 1.9 or higher.
 public final class BungeeMainHandProvider extends MainHandProvider {
-    private static Method getSettings;
-    private static Method setMainHand;
-
-    static {
-        try {
-            getSettings = Class.forName("net.md_5.bungee.UserConnection").getDeclaredMethod("getSettings");
-            setMainHand = Class.forName("net.md_5.bungee.protocol.packet.ClientSettings").getDeclaredMethod("setMainHand", int.class);
-        } catch (Exception ignored) {
-        }
-    }
 
     @Override
     public void setMainHand(UserConnection user, int hand) {
@@ -47,17 +38,23 @@ public final class BungeeMainHandProvider extends MainHandProvider {
             return;
         }
 
-        ProxiedPlayer player = ProxyServer.getInstance().getPlayer(info.getUuid());
+        final ClientStorage storage = ClientStorage.of(user);
+        if (storage != null && storage.settings() != null) {
+            storage.settings().setMainHand(hand);
+            return;
+        }
+
+        ProxiedPlayer player = BungeePlayerLinks.player(user);
         if (player == null) {
             return;
         }
 
         try {
-            Object settings = getSettings.invoke(player);
+            ClientSettings settings = BungeeInternals.settings(player);
             if (settings != null) {
-                setMainHand.invoke(settings, hand);
+                settings.setMainHand(hand);
             }
-        } catch (IllegalAccessException | InvocationTargetException e) {
+        } catch (IllegalStateException e) {
             Via.getPlatform().getLogger().log(Level.WARNING, "Failed to set main hand for " + player.getName(), e);
         }
     }
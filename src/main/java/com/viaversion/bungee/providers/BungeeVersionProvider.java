@@ -17,42 +17,33 @@
  */
 package com.viaversion.bungee.providers;
 
-import com.google.common.collect.Lists;
+import com.viaversion.bungee.platform.BungeeInternals;
+import com.viaversion.bungee.storage.BackendStorage;
 import com.viaversion.viaversion.api.Via;
-import com.viaversion.viaversion.api.connection.ProtocolInfo;
 import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.platform.ProtocolDetectorService;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.api.protocol.version.VersionType;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectMap;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectOpenHashMap;
 import com.viaversion.viaversion.protocol.version.BaseVersionProvider;
 import io.netty.channel.Channel;
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
+import java.util.logging.Level;
+import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.protocol.ProtocolConstants;
 
 public final class BungeeVersionProvider extends BaseVersionProvider {
 
-    private static final MethodHandle GET_SERVER_CONNECTOR;
-    private static final MethodHandle GET_BUNGEE_SERVER_INFO;
-    private static final MethodHandle GET_SERVER_NAME;
+    private volatile VersionTable versionTable = VersionTable.create();
+    private volatile boolean loggedServerNameError;
 
-    static {
-        try {
-            final MethodHandles.Lookup lookup = MethodHandles.lookup();
-            final Class<?> handlerBossClass = Class.forName("net.md_5.bungee.netty.HandlerBoss");
-            final Class<?> packetHandlerClass = Class.forName("net.md_5.bungee.netty.PacketHandler");
-            final Class<?> serverConnectorClass = Class.forName("net.md_5.bungee.ServerConnector");
-            final Class<?> bungeeServerInfoClass = Class.forName("net.md_5.bungee.BungeeServerInfo");
-
-            GET_SERVER_CONNECTOR = MethodHandles.privateLookupIn(handlerBossClass, lookup).findGetter(handlerBossClass, "handler", packetHandlerClass);
-            GET_BUNGEE_SERVER_INFO = MethodHandles.privateLookupIn(serverConnectorClass, lookup).findGetter(serverConnectorClass, "target", bungeeServerInfoClass);
-            GET_SERVER_NAME = MethodHandles.privateLookupIn(bungeeServerInfoClass, lookup).findGetter(bungeeServerInfoClass, "name", String.class);
-        } catch (final ReflectiveOperationException e) {
-            Via.getPlatform().getLogger().severe("Error initializing BungeeVersionProvider, try updating BungeeCord or ViaVersion!");
-            throw new RuntimeException(e);
-        }
+    /**
+     * Rebuilds the version table, to be called after protocol versions have been registered.
+     */
+    public void rebuildVersionTable() {
+        this.versionTable = VersionTable.create();
     }
 
     @Override
@@ -66,34 +57,70 @@ public final class BungeeVersionProvider extends BaseVersionProvider {
 
     private String getServerName(final Channel channel) {
         try {
-            final Object serverConnector = GET_SERVER_CONNECTOR.invoke(channel.pipeline().get("inbound-boss"));
-            final Object bungeeServerInfo = GET_BUNGEE_SERVER_INFO.invoke(serverConnector);
-            return (String) GET_SERVER_NAME.invoke(bungeeServerInfo);
-        } catch (final Throwable e) {
-            Via.getPlatform().getLogger().severe("Error getting server name from BungeeCord!");
+            final ServerInfo target = BungeeInternals.targetServer(channel);
+            return target != null ? target.getName() : null;
+        } catch (final IllegalStateException e) {
+            if (!loggedServerNameError) {
+                loggedServerNameError = true;
+                Via.getPlatform().getLogger().log(Level.SEVERE, "Error getting server name from BungeeCord!", e);
+            }
             return null;
         }
     }
 
     private ProtocolVersion getBackProtocol(UserConnection user) {
-        final String serverName = getServerName(user.getChannel());
-        return Via.proxyPlatform().protocolDetectorService().serverProtocolVersion(serverName);
+        final BackendStorage storage = user.get(BackendStorage.class);
+        if (storage != null) {
+            return storage.protocolVersion();
+        }
+
+        return captureBackProtocol(user, getServerName(user.getChannel()), Via.proxyPlatform().protocolDetectorService());
     }
 
-    private ProtocolVersion getFrontProtocol(UserConnection user) throws Exception {
-        List<Integer> sorted = new ArrayList<>(ProtocolConstants.SUPPORTED_VERSION_IDS);
-        Collections.sort(sorted);
+    /**
+     * Resolves the protocol version of a backend connection and stores it with the server name, so it stays fixed for the connection.
+     *
+     * @param user                    backend connection
+     * @param serverName              name of the target server, or null if unknown
+     * @param protocolDetectorService service to look the version up from
+     * @return protocol version of the server
+     */
+    static ProtocolVersion captureBackProtocol(final UserConnection user, final String serverName, final ProtocolDetectorService protocolDetectorService) {
+        final ProtocolVersion protocolVersion = protocolDetectorService.serverProtocolVersion(serverName);
+        if (serverName != null) {
+            user.put(new BackendStorage(serverName, protocolVersion));
+        }
+        return protocolVersion;
+    }
+
+    private ProtocolVersion getFrontProtocol(UserConnection user) {
+        final VersionTable table = versionTable;
+        final ProtocolVersion clientProtocolVersion = user.getProtocolInfo().protocolVersion();
+        if (clientProtocolVersion.getVersionType() == VersionType.RELEASE) {
+            final ProtocolVersion resolved = table.resolved().get(clientProtocolVersion.getVersion());
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+
+        final ProtocolVersion resolved = resolve(table.supported(), clientProtocolVersion);
+        if (resolved != null) {
+            return resolved;
+        }
 
-        ProtocolInfo info = user.getProtocolInfo();
+        Via.getPlatform().getLogger().severe("Panic, no protocol id found for " + clientProtocolVersion);
+        return clientProtocolVersion;
+    }
 
+    private static ProtocolVersion resolve(final int[] supported, final ProtocolVersion clientProtocolVersion) {
         // Bungee supports it
-        final ProtocolVersion clientProtocolVersion = info.protocolVersion();
-        if (new HashSet<>(sorted).contains(clientProtocolVersion.getVersion())) {
+        final int version = clientProtocolVersion.getVersion();
+        if (Arrays.binarySearch(supported, version) >= 0) {
             return clientProtocolVersion;
         }
 
         // Older than bungee supports, get the lowest version
-        if (clientProtocolVersion.getVersion() < sorted.get(0)) {
+        if (version < supported[0]) {
             return Via.getManager().getInjector().getServerProtocolVersion();
         }
 
@@ -101,13 +128,34 @@ public final class BungeeVersionProvider extends BaseVersionProvider {
 
         // TODO: This needs a better fix, i.e checking ProtocolRegistry to see if it would work.
         // This is more of a workaround for snapshot support by bungee.
-        for (Integer protocol : Lists.reverse(sorted)) {
-            if (clientProtocolVersion.getVersion() > protocol && ProtocolVersion.isRegistered(protocol)) {
-                return ProtocolVersion.getProtocol(protocol);
+        for (int i = supported.length - 1; i >= 0; i--) {
+            if (version > supported[i] && ProtocolVersion.isRegistered(supported[i])) {
+                return ProtocolVersion.getProtocol(supported[i]);
             }
         }
+        return null;
+    }
 
-        Via.getPlatform().getLogger().severe("Panic, no protocol id found for " + clientProtocolVersion);
-        return clientProtocolVersion;
+    /**
+     * Closest Bungee supported version for every registered release version.
+     */
+    private record VersionTable(int[] supported, Int2ObjectMap<ProtocolVersion> resolved) {
+
+        static VersionTable create() {
+            final int[] supported = ProtocolConstants.SUPPORTED_VERSION_IDS.stream().mapToInt(Integer::intValue).sorted().toArray();
+            final List<ProtocolVersion> protocols = ProtocolVersion.getProtocols();
+            final Int2ObjectMap<ProtocolVersion> resolved = new Int2ObjectOpenHashMap<>(protocols.size());
+            for (final ProtocolVersion protocol : protocols) {
+                if (protocol.getVersionType() != VersionType.RELEASE) {
+                    continue;
+                }
+
+                final ProtocolVersion closest = resolve(supported, protocol);
+                if (closest != null) {
+                    resolved.put(protocol.getVersion(), closest);
+                }
+            }
+            return new VersionTable(supported, resolved);
+        }
     }
 }
@@ -0,0 +1,58 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outcome of a round of server probes.
+ *
+ * @param succeeded number of servers that answered with a valid version
+ * @param changed   number of servers out of the succeeded ones whose version changed
+ * @param failed    number of servers that couldn't be pinged or answered with an invalid version
+ * @param timedOut  number of servers that didn't answer in time
+ */
+public record ProbeResult(int succeeded, int changed, int failed, int timedOut) {
+
+    static ProbeResult of(final List<CompletableFuture<Outcome>> futures) {
+        int succeeded = 0;
+        int changed = 0;
+        int failed = 0;
+        int timedOut = 0;
+        for (final CompletableFuture<Outcome> future : futures) {
+            switch (future.join()) {
+                case SUCCEEDED -> succeeded++;
+                case CHANGED -> {
+                    succeeded++;
+                    changed++;
+                }
+                case FAILED -> failed++;
+                case TIMED_OUT -> timedOut++;
+            }
+        }
+        return new ProbeResult(succeeded, changed, failed, timedOut);
+    }
+
+    public enum Outcome {
+        SUCCEEDED,
+        CHANGED,
+        FAILED,
+        TIMED_OUT
+    }
+}
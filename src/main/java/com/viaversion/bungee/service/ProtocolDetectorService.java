@@ -18,78 +18,592 @@
 package com.viaversion.bungee.service;
 
 import com.viaversion.bungee.ViaBungeeConfig;
-import com.viaversion.bungee.ViaBungeePlatform;
 import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.platform.PlatformTask;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.libs.fastutil.objects.Object2IntMap;
 import com.viaversion.viaversion.platform.AbstractProtocolDetectorService;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.protocol.ProtocolConstants;
 
 public final class ProtocolDetectorService extends AbstractProtocolDetectorService {
 
-    public void probeServer(final ServerInfo serverInfo) {
-        final String serverName = serverInfo.getName();
-        serverInfo.ping((serverPing, throwable) -> {
-            // Ensure protocol is positive, some services will return -1
-            if (throwable != null || serverPing == null || serverPing.getVersion() == null || serverPing.getVersion().getProtocol() <= 0) {
-                return;
+    private static final long TICK_MILLIS = 50;
+    private static final long SAVE_DELAY_TICKS = 100;
+    // Callbacks of Bungee's pings and of the timer are moved off their threads onto Via's executor
+    private static final Executor VIA_EXECUTOR = runnable -> Via.getPlatform().runAsync(runnable);
+
+    private final Supplier<ViaBungeeConfig> config;
+    private final Queue<QueuedProbe> queuedProbes = new ConcurrentLinkedQueue<>();
+    private final Set<QueuedProbe> delayedProbes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger runningProbes = new AtomicInteger();
+    private final Map<String, ProbeSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<ProbeResult.Outcome>> pendingProbes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> pendingSaves = new ConcurrentHashMap<>();
+    private final Map<String, Long> pingTimes = new ConcurrentHashMap<>();
+    private final AtomicBoolean snapshotDirty = new AtomicBoolean();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private final Object saveLock = new Object();
+    private volatile File snapshotFile;
+    private volatile VersionSnapshot versionSnapshot;
+
+    public ProtocolDetectorService(final Supplier<ViaBungeeConfig> config) {
+        this.config = config;
+    }
+
+    /**
+     * Loads detected versions from a snapshot written by a previous run, so they are used before the first ping completes.
+     * Versions pinged within the base ping interval aren't probed again until that interval has passed.
+     * The file is kept to write new snapshots to, unless pinging is disabled, in which case a leftover snapshot is deleted.
+     *
+     * @param file snapshot file
+     */
+    public void loadSnapshot(final File file) {
+        if (config().getBungeePingInterval() < 1) {
+            if (file.exists() && !file.delete()) {
+                Via.getPlatform().getLogger().warning("Failed to delete outdated " + file.getName());
             }
+            return;
+        }
 
-            final int oldProtocolVersion = serverProtocolVersion(serverName).getVersion();
-            if (oldProtocolVersion == serverPing.getVersion().getProtocol()) {
-                // Same value as previously
-                return;
+        this.snapshotFile = file;
+        if (!file.exists()) {
+            return;
+        }
+
+        final List<ProtocolSnapshot.Entry> entries;
+        try {
+            entries = ProtocolSnapshot.read(file);
+        } catch (final IOException e) {
+            Via.getPlatform().getLogger().log(Level.WARNING, "Failed to read detected server versions from " + file.getName(), e);
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        final long baseInterval = TimeUnit.SECONDS.toMillis(config().getBungeePingInterval());
+        for (final ProtocolSnapshot.Entry entry : entries) {
+            if (!ProtocolVersion.isRegistered(entry.protocolVersion())) {
+                continue;
+            }
+
+            setProtocolVersion(entry.serverName(), entry.protocolVersion());
+            pingTimes.put(entry.serverName(), entry.detectedAt());
+            if (now - entry.detectedAt() < baseInterval) {
+                schedules.put(entry.serverName(), new ProbeSchedule(baseInterval, entry.detectedAt() + baseInterval));
             }
+        }
+    }
 
-            setProtocolVersion(serverName, serverPing.getVersion().getProtocol());
+    /**
+     * Pings a server and updates its detected protocol version.
+     *
+     * @param serverInfo server to probe
+     * @return future completed with the outcome of the probe, timing out after the configured ping timeout
+     */
+    public CompletableFuture<ProbeResult.Outcome> probeServer(final ServerInfo serverInfo) {
+        return withTimeout(ping(serverInfo));
+    }
 
-            final ViaBungeeConfig config = ((ViaBungeePlatform) Via.getPlatform()).getBungeeConfig();
-            if (config.isBungeePingSave()) {
-                final Map<String, Integer> servers = config.getBungeeServerProtocols();
-                final Integer protocol = servers.get(serverName);
-                if (protocol != null && protocol == serverPing.getVersion().getProtocol()) {
+    /**
+     * Pings a server and updates its detected protocol version.
+     *
+     * @param serverInfo server to ping
+     * @return future completed once Bungee is done with the ping, which may be well after the configured ping timeout
+     */
+    private CompletableFuture<ProbeResult.Outcome> ping(final ServerInfo serverInfo) {
+        final String serverName = serverInfo.getName();
+        final CompletableFuture<ProbeResult.Outcome> future = new CompletableFuture<>();
+        try {
+            serverInfo.ping((serverPing, throwable) -> {
+                // Ensure protocol is positive, some services will return -1
+                if (throwable != null || serverPing == null || serverPing.getVersion() == null || serverPing.getVersion().getProtocol() <= 0) {
+                    future.complete(ProbeResult.Outcome.FAILED);
                     return;
                 }
 
-                // Ensure we're the only ones writing to the config
-                synchronized (Via.getManager().getConfigurationProvider()) {
-                    servers.put(serverName, serverPing.getVersion().getProtocol());
+                recordPing(serverName);
+                final int oldProtocolVersion = serverProtocolVersion(serverName).getVersion();
+                if (oldProtocolVersion == serverPing.getVersion().getProtocol()) {
+                    // Same value as previously
+                    future.complete(ProbeResult.Outcome.SUCCEEDED);
+                    return;
                 }
-                config.save();
+
+                setProtocolVersion(serverName, serverPing.getVersion().getProtocol());
+                // Queue the save first, so a save right after the probe completed includes it
+                if (config().isBungeePingSave()) {
+                    scheduleSave(serverName, serverPing.getVersion().getProtocol());
+                } else if (snapshotFile != null) {
+                    scheduleFlush();
+                }
+                future.complete(ProbeResult.Outcome.CHANGED);
+            });
+        } catch (final RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private CompletableFuture<ProbeResult.Outcome> withTimeout(final CompletableFuture<ProbeResult.Outcome> ping) {
+        // Only time out the copy, the ping itself is still running
+        return completeOnTimeout(ping.copy(), ProbeResult.Outcome.TIMED_OUT, config().getBungeePingTimeout());
+    }
+
+    /**
+     * Completes the future with the given value if it isn't done within the timeout, using Via's timer.
+     *
+     * @param future        future to complete
+     * @param value         value to complete the future with on timeout
+     * @param timeoutMillis timeout in milliseconds, rounded up to whole ticks
+     * @param <T>           type of the value
+     * @return the given future
+     */
+    public static <T> CompletableFuture<T> completeOnTimeout(final CompletableFuture<T> future, final T value, final long timeoutMillis) {
+        final PlatformTask timeout = Via.getPlatform().runSync(() -> future.complete(value), toTicks(timeoutMillis));
+        future.whenComplete((result, throwable) -> timeout.cancel());
+        return future;
+    }
+
+    /**
+     * Probes the given servers, running at most the configured number of probes at once.
+     *
+     * @param servers      servers to probe
+     * @param spreadMillis time to randomly spread the start of the probes over, or 0 to start them right away
+     * @return future completed once all probes are done
+     */
+    public CompletableFuture<ProbeResult> probeServers(final Collection<ServerInfo> servers, final long spreadMillis) {
+        final List<CompletableFuture<ProbeResult.Outcome>> futures = new ArrayList<>(servers.size());
+        for (final ServerInfo serverInfo : servers) {
+            final QueuedProbe probe = new QueuedProbe(serverInfo, new CompletableFuture<>());
+            futures.add(probe.future());
+            if (spreadMillis > 0) {
+                final long delay = ThreadLocalRandom.current().nextLong(spreadMillis);
+                delayedProbes.add(probe);
+                Via.getPlatform().runSync(() -> {
+                    // Cancelled in the meantime otherwise
+                    if (delayedProbes.remove(probe)) {
+                        enqueue(probe);
+                    }
+                }, toTicks(delay));
+            } else {
+                enqueue(probe);
             }
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(v -> ProbeResult.of(futures));
+    }
+
+    /**
+     * Probes all registered servers and removes detected versions of servers that aren't registered anymore.
+     *
+     * @param spreadMillis time to randomly spread the start of the probes over, or 0 to start them right away
+     * @return future completed once all probes are done
+     */
+    public CompletableFuture<ProbeResult> probeAllServers(final long spreadMillis) {
+        return probeServers(registeredServers(), spreadMillis);
+    }
+
+    /**
+     * Probes registered servers that are due according to their own probe interval.
+     * Servers with a stable version are probed less and less often, up to the configured maximum interval,
+     * while new servers and servers that failed or changed their version are probed again after the base interval.
+     *
+     * @param spreadMillis time to randomly spread the start of the probes over, or 0 to start them right away
+     * @return future completed once all probes are done
+     */
+    public CompletableFuture<ProbeResult> probeDueServers(final long spreadMillis) {
+        if (snapshotDirty.get()) {
+            // Confirmation times of the last round
+            scheduleFlush();
+        }
+
+        final long now = System.currentTimeMillis();
+        final List<ServerInfo> dueServers = new ArrayList<>();
+        for (final ServerInfo serverInfo : registeredServers()) {
+            final ProbeSchedule schedule = schedules.get(serverInfo.getName());
+            if (schedule == null || schedule.nextProbeMillis() <= now) {
+                // Don't pick the server up again until this probe is done
+                schedules.put(serverInfo.getName(), new ProbeSchedule(schedule != null ? schedule.intervalMillis() : 0, Long.MAX_VALUE));
+                dueServers.add(serverInfo);
+            }
+        }
+        return probeServers(dueServers, spreadMillis);
+    }
+
+    /**
+     * Records that a player has just completed login to a server with the given protocol version,
+     * postponing the next probe of the server by its current interval, but never past the maximum interval since its last ping.
+     * Servers that haven't been pinged yet aren't postponed.
+     *
+     * @param serverName      name of the server
+     * @param protocolVersion protocol version the connection was translated to
+     */
+    public void confirmVersion(final String serverName, final int protocolVersion) {
+        if (serverProtocolVersion(serverName).getVersion() != protocolVersion) {
+            // Changed while the player was connecting
+            return;
+        }
+
+        // A login only shows the version was right at some point, the server may have changed since without players noticing
+        final Long pingedAt = pingTimes.get(serverName);
+        if (pingedAt == null) {
+            return;
+        }
+
+        final ViaBungeeConfig config = config();
+        final long baseInterval = TimeUnit.SECONDS.toMillis(config.getBungeePingInterval());
+        final long latestProbe = pingedAt + Math.max(baseInterval, TimeUnit.SECONDS.toMillis(config.getBungeePingMaxInterval()));
+        schedules.compute(serverName, (name, schedule) -> {
+            if (schedule != null && schedule.nextProbeMillis() == Long.MAX_VALUE) {
+                // Probe running, it will reschedule itself
+                return schedule;
+            }
+
+            final long interval = schedule != null && schedule.intervalMillis() > 0 ? schedule.intervalMillis() : baseInterval;
+            final long nextProbe = Math.min(System.currentTimeMillis() + interval, latestProbe);
+            return new ProbeSchedule(interval, schedule != null ? Math.max(schedule.nextProbeMillis(), nextProbe) : nextProbe);
+        });
+    }
+
+    /**
+     * Makes a server due for the next probe round, e.g. after a player failed to connect to it.
+     *
+     * @param serverName name of the server
+     */
+    public void markDue(final String serverName) {
+        schedules.computeIfPresent(serverName, (name, schedule) -> schedule.nextProbeMillis() == Long.MAX_VALUE ? schedule : new ProbeSchedule(0, 0));
+    }
+
+    /**
+     * Probes a server unless it has been pinged within the maximum ping interval.
+     * Concurrent calls for the same server share a single probe.
+     *
+     * @param serverInfo server to probe
+     * @return future completed with the outcome of the probe, or right away if the version is fresh
+     */
+    public CompletableFuture<ProbeResult.Outcome> probeIfStale(final ServerInfo serverInfo) {
+        final String serverName = serverInfo.getName();
+        final Long pingedAt = pingTimes.get(serverName);
+        final long maxInterval = TimeUnit.SECONDS.toMillis(config().getBungeePingMaxInterval());
+        if (pingedAt != null && System.currentTimeMillis() - pingedAt < maxInterval) {
+            return CompletableFuture.completedFuture(ProbeResult.Outcome.SUCCEEDED);
+        }
+
+        final CompletableFuture<ProbeResult.Outcome> future = new CompletableFuture<>();
+        final CompletableFuture<ProbeResult.Outcome> pendingFuture = pendingProbes.putIfAbsent(serverName, future);
+        if (pendingFuture != null) {
+            return pendingFuture;
+        }
+
+        probeServer(serverInfo).whenComplete((outcome, throwable) -> {
+            final ProbeResult.Outcome result = throwable != null ? ProbeResult.Outcome.FAILED : outcome;
+            pendingProbes.remove(serverName, future);
+            updateSchedule(serverName, result);
+            future.complete(result);
         });
+        return future;
+    }
+
+    /**
+     * Cancels all probes that haven't been started yet, making their servers due again.
+     * Probes that are already running are left to complete.
+     */
+    public void cancelPendingProbes() {
+        final List<QueuedProbe> cancelled = new ArrayList<>();
+        for (final QueuedProbe probe : delayedProbes) {
+            if (delayedProbes.remove(probe)) {
+                cancelled.add(probe);
+            }
+        }
+        QueuedProbe probe;
+        while ((probe = queuedProbes.poll()) != null) {
+            cancelled.add(probe);
+        }
+
+        for (final QueuedProbe cancelledProbe : cancelled) {
+            schedules.computeIfPresent(cancelledProbe.serverInfo().getName(), (name, schedule) -> schedule.nextProbeMillis() == Long.MAX_VALUE ? null : schedule);
+            cancelledProbe.future().cancel(false);
+        }
     }
 
     @Override
     public void probeAllServers() {
+        probeAllServers(0);
+    }
+
+    private Collection<ServerInfo> registeredServers() {
         final Collection<ServerInfo> servers = ProxyServer.getInstance().getServers().values();
         final Set<String> serverNames = new HashSet<>(servers.size());
         for (final ServerInfo serverInfo : servers) {
-            probeServer(serverInfo);
             serverNames.add(serverInfo.getName());
         }
 
         // Remove servers that aren't registered anymore
         lock.writeLock().lock();
         try {
-            detectedProtocolIds.keySet().retainAll(serverNames);
+            if (detectedProtocolIds.keySet().retainAll(serverNames)) {
+                publishVersions();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        schedules.keySet().retainAll(serverNames);
+        pingTimes.keySet().retainAll(serverNames);
+        return servers;
+    }
+
+    private void updateSchedule(final String serverName, final ProbeResult.Outcome outcome) {
+        final ViaBungeeConfig config = config();
+        final long baseInterval = TimeUnit.SECONDS.toMillis(config.getBungeePingInterval());
+        final long maxInterval = Math.max(baseInterval, TimeUnit.SECONDS.toMillis(config.getBungeePingMaxInterval()));
+        schedules.compute(serverName, (name, schedule) -> {
+            final long interval = outcome == ProbeResult.Outcome.SUCCEEDED && schedule != null && schedule.intervalMillis() > 0
+                ? Math.min(schedule.intervalMillis() * 2, maxInterval)
+                : baseInterval;
+            return new ProbeSchedule(interval, System.currentTimeMillis() + interval);
+        });
+    }
+
+    private void enqueue(final QueuedProbe probe) {
+        queuedProbes.add(probe);
+        startQueuedProbes();
+    }
+
+    private void startQueuedProbes() {
+        final int maxRunning = Math.max(1, config().getBungeePingConcurrency());
+        while (!queuedProbes.isEmpty()) {
+            final int running = runningProbes.get();
+            if (running >= maxRunning) {
+                return;
+            }
+            if (!runningProbes.compareAndSet(running, running + 1)) {
+                continue;
+            }
+
+            final QueuedProbe probe = queuedProbes.poll();
+            if (probe == null) {
+                runningProbes.decrementAndGet();
+                continue;
+            }
+
+            final CompletableFuture<ProbeResult.Outcome> ping = ping(probe.serverInfo());
+            // Keep the slot until Bungee is done with the ping, it keeps its connection open past our timeout
+            ping.whenCompleteAsync((outcome, throwable) -> {
+                runningProbes.decrementAndGet();
+                startQueuedProbes();
+            }, VIA_EXECUTOR);
+            withTimeout(ping).whenCompleteAsync((outcome, throwable) -> {
+                final ProbeResult.Outcome result = throwable != null ? ProbeResult.Outcome.FAILED : outcome;
+                updateSchedule(probe.serverInfo().getName(), result);
+                probe.future().complete(result);
+            }, VIA_EXECUTOR);
+        }
+    }
+
+    private void recordPing(final String serverName) {
+        pingTimes.put(serverName, System.currentTimeMillis());
+        // Written with the next change or probe round, not after every ping
+        snapshotDirty.set(true);
+    }
+
+    private void scheduleSave(final String serverName, final int protocolVersion) {
+        pendingSaves.put(serverName, protocolVersion);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (saveScheduled.compareAndSet(false, true)) {
+            Via.getPlatform().runSync(this::savePendingVersions, SAVE_DELAY_TICKS);
+        }
+    }
+
+    /**
+     * Writes all detected versions collected since the last save to the config at once, as well as a new snapshot if needed.
+     * Saves are serialized, so an older state never overwrites a newer one.
+     */
+    public void savePendingVersions() {
+        // A scheduled flush may run at the same time as the save on unload
+        synchronized (saveLock) {
+            saveScheduled.set(false);
+            if (snapshotDirty.compareAndSet(true, false)) {
+                writeSnapshot();
+            }
+            if (pendingSaves.isEmpty()) {
+                return;
+            }
+
+            final ViaBungeeConfig config = config();
+            final Map<String, Integer> servers = config.getBungeeServerProtocols();
+            boolean changed = false;
+            // Ensure we're the only ones writing to the config
+            synchronized (Via.getManager().getConfigurationProvider()) {
+                // The version snapshot is built from the same map
+                lock.writeLock().lock();
+                try {
+                    for (final Map.Entry<String, Integer> entry : pendingSaves.entrySet()) {
+                        // Keep newer values put in the meantime for the next save
+                        pendingSaves.remove(entry.getKey(), entry.getValue());
+                        if (!entry.getValue().equals(servers.put(entry.getKey(), entry.getValue()))) {
+                            changed = true;
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            if (changed) {
+                config.save();
+            }
+        }
+    }
+
+    private void writeSnapshot() {
+        final File file = snapshotFile;
+        if (file == null) {
+            return;
+        }
+
+        final Object2IntMap<String> versions = detectedProtocolVersions();
+        final List<ProtocolSnapshot.Entry> entries = new ArrayList<>(versions.size());
+        for (final Object2IntMap.Entry<String> entry : versions.object2IntEntrySet()) {
+            final Long pingedAt = pingTimes.get(entry.getKey());
+            entries.add(new ProtocolSnapshot.Entry(entry.getKey(), entry.getIntValue(), pingedAt != null ? pingedAt : 0));
+        }
+
+        try {
+            ProtocolSnapshot.write(file, entries);
+        } catch (final IOException e) {
+            Via.getPlatform().getLogger().log(Level.WARNING, "Failed to write detected server versions to " + file.getName(), e);
+        }
+    }
+
+    private static long toTicks(final long millis) {
+        return (millis + TICK_MILLIS - 1) / TICK_MILLIS;
+    }
+
+    private ViaBungeeConfig config() {
+        return config.get();
+    }
+
+    /**
+     * Rebuilds the version snapshot, to be called after the config has been reloaded or protocol versions have been registered.
+     */
+    public void reloadVersions() {
+        lock.writeLock().lock();
+        try {
+            publishVersions();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the protocol version of the given server from an immutable snapshot of configured and detected versions,
+     * without taking any lock unless no snapshot has been built yet.
+     *
+     * @param serverName name of the server
+     * @return protocol version of the server
+     */
+    @Override
+    public ProtocolVersion serverProtocolVersion(final String serverName) {
+        VersionSnapshot snapshot = versionSnapshot;
+        if (snapshot == null) {
+            lock.readLock().lock();
+            try {
+                snapshot = publishVersions();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        final ProtocolVersion protocolVersion = serverName != null ? snapshot.versions().get(serverName) : null;
+        return protocolVersion != null ? protocolVersion : snapshot.defaultVersion();
+    }
+
+    @Override
+    public void setProtocolVersion(final String serverName, final int protocolVersion) {
+        lock.writeLock().lock();
+        try {
+            detectedProtocolIds.put(serverName, protocolVersion);
+            publishVersions();
         } finally {
             lock.writeLock().unlock();
         }
     }
 
+    @Override
+    public int uncacheProtocolVersion(final String serverName) {
+        lock.writeLock().lock();
+        try {
+            final int protocolVersion = detectedProtocolIds.removeInt(serverName);
+            publishVersions();
+            return protocolVersion;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the version snapshot, must be called while holding the lock.
+     */
+    private VersionSnapshot publishVersions() {
+        final Map<String, Integer> configured = configuredServers();
+        final Map<String, ProtocolVersion> versions = new HashMap<>(configured.size() + detectedProtocolIds.size());
+        for (final Map.Entry<String, Integer> entry : configured.entrySet()) {
+            versions.put(entry.getKey(), ProtocolVersion.getProtocol(entry.getValue()));
+        }
+        // Detected versions take precedence
+        for (final Object2IntMap.Entry<String> entry : detectedProtocolIds.object2IntEntrySet()) {
+            versions.put(entry.getKey(), ProtocolVersion.getProtocol(entry.getIntValue()));
+        }
+
+        final Integer defaultProtocol = configured.get("default");
+        final ProtocolVersion defaultVersion = defaultProtocol != null ? ProtocolVersion.getProtocol(defaultProtocol) : lowestSupportedProtocolVersion();
+        final VersionSnapshot snapshot = new VersionSnapshot(versions, defaultVersion);
+        this.versionSnapshot = snapshot;
+        return snapshot;
+    }
+
     @Override
     protected Map<String, Integer> configuredServers() {
-        return ((ViaBungeePlatform) Via.getPlatform()).getBungeeConfig().getBungeeServerProtocols();
+        return config().getBungeeServerProtocols();
     }
 
     @Override
     protected ProtocolVersion lowestSupportedProtocolVersion() {
         return ProtocolVersion.getProtocol(ProtocolConstants.SUPPORTED_VERSION_IDS.get(0));
     }
+
+    /**
+     * @param versions       configured and detected versions by server name
+     * @param defaultVersion version of servers without a configured or detected version
+     */
+    private record VersionSnapshot(Map<String, ProtocolVersion> versions, ProtocolVersion defaultVersion) {
+    }
+
+    private record ProbeSchedule(long intervalMillis, long nextProbeMillis) {
+    }
+
+    private record QueuedProbe(ServerInfo serverInfo, CompletableFuture<ProbeResult.Outcome> future) {
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.service;
+
+import com.viaversion.bungee.util.FileUtil;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Binary snapshot of detected server protocol versions, used to translate correctly right after a restart.
+ */
+final class ProtocolSnapshot {
+
+    private static final int MAGIC = 0x56425356;
+    private static final int FORMAT_VERSION = 1;
+
+    private ProtocolSnapshot() {
+    }
+
+    static List<Entry> read(final File file) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a protocol version snapshot");
+            }
+
+            final int formatVersion = in.readUnsignedByte();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format " + formatVersion);
+            }
+
+            final int size = in.readInt();
+            final List<Entry> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                entries.add(new Entry(in.readUTF(), in.readInt(), in.readLong()));
+            }
+            return entries;
+        }
+    }
+
+    static void write(final File file, final Collection<Entry> entries) throws IOException {
+        FileUtil.writeAndReplace(file.toPath(), tempFile -> {
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeByte(FORMAT_VERSION);
+                out.writeInt(entries.size());
+                for (final Entry entry : entries) {
+                    out.writeUTF(entry.serverName());
+                    out.writeInt(entry.protocolVersion());
+                    out.writeLong(entry.detectedAt());
+                }
+            }
+        });
+    }
+
+    /**
+     * @param serverName      name of the server
+     * @param protocolVersion detected protocol version
+     * @param detectedAt      time the version was last confirmed, in epoch milliseconds
+     */
+    record Entry(String serverName, int protocolVersion, long detectedAt) {
+    }
+}
@@ -18,7 +18,12 @@
 package com.viaversion.bungee.storage;
 
 import com.viaversion.viaversion.api.connection.StorableObject;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.connection.Server;
 
-public record BungeeStorage(Server server) implements StorableObject {
+/**
+ * @param player player the connection belongs to
+ * @param server server of a backend connection, null on the frontend connection
+ */
+public record BungeeStorage(ProxiedPlayer player, Server server) implements StorableObject {
 }
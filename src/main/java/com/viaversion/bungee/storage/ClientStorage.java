@@ -0,0 +1,145 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.storage;
+
+import com.viaversion.bungee.platform.BungeePlayerLinks;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.ProtocolInfo;
+import com.viaversion.viaversion.api.connection.StorableObject;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import net.md_5.bungee.protocol.packet.ClientSettings;
+
+/**
+ * Client state observed from packets passing through a frontend connection.
+ */
+public final class ClientStorage implements StorableObject {
+
+    private volatile int entityId = -1;
+    private volatile ClientSettings settings;
+    private volatile UUID backendUuid;
+    private volatile ConnectionDetailsPayload connectionDetails;
+    private final AtomicReference<Runnable> respawnTask = new AtomicReference<>();
+
+    /**
+     * Returns the client storage of the player a connection belongs to.
+     *
+     * @param connection frontend or backend connection
+     * @return client storage, or null if the player's frontend connection isn't known
+     */
+    public static ClientStorage of(final UserConnection connection) {
+        if (!connection.isClientSide()) {
+            return connection.get(ClientStorage.class);
+        }
+
+        final BungeeStorage storage = connection.get(BungeeStorage.class);
+        final UserConnection frontend;
+        if (storage != null) {
+            frontend = BungeePlayerLinks.connection(storage.player());
+        } else {
+            // Still logging in to its first server
+            final UUID uuid = connection.getProtocolInfo().getUuid();
+            frontend = uuid != null ? Via.getManager().getConnectionManager().getServerConnection(uuid) : null;
+        }
+        return frontend != null ? frontend.get(ClientStorage.class) : null;
+    }
+
+    /**
+     * Returns the entity id of the last login sent to the client.
+     *
+     * @return entity id, or -1 if no login has been sent yet
+     */
+    public int entityId() {
+        return entityId;
+    }
+
+    public void setEntityId(final int entityId) {
+        this.entityId = entityId;
+    }
+
+    /**
+     * Returns the last client settings sent by the client, which is the same instance Bungee keeps.
+     *
+     * @return client settings, or null if none have been sent yet
+     */
+    public ClientSettings settings() {
+        return settings;
+    }
+
+    public void setSettings(final ClientSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Returns the uuid backend servers know the player by, which may be an offline uuid.
+     *
+     * @return backend uuid, or null if not resolved yet
+     */
+    public UUID backendUuid() {
+        return backendUuid;
+    }
+
+    public void setBackendUuid(final UUID backendUuid) {
+        this.backendUuid = backendUuid;
+    }
+
+    /**
+     * Returns the connection details payload last sent to a server, if it was sent for the same versions.
+     *
+     * @param connection backend connection
+     * @return serialized connection details, or null if they have to be serialized again
+     */
+    public byte[] connectionDetails(final UserConnection connection) {
+        final ConnectionDetailsPayload payload = connectionDetails;
+        if (payload == null) {
+            return null;
+        }
+
+        final ProtocolInfo info = connection.getProtocolInfo();
+        return payload.protocolVersion() == info.protocolVersion() && payload.serverProtocolVersion() == info.serverProtocolVersion() ? payload.data() : null;
+    }
+
+    public void setConnectionDetails(final UserConnection connection, final byte[] data) {
+        final ProtocolInfo info = connection.getProtocolInfo();
+        this.connectionDetails = new ConnectionDetailsPayload(info.protocolVersion(), info.serverProtocolVersion(), data);
+    }
+
+    /**
+     * Sets a task to run on the event loop once the next login or respawn has been written to the client,
+     * replacing any task still waiting for one.
+     *
+     * @param task task to run
+     */
+    public void runAfterNextRespawn(final Runnable task) {
+        respawnTask.set(task);
+    }
+
+    /**
+     * Takes the task waiting for the next login or respawn.
+     *
+     * @return task to run, or null if none is waiting
+     */
+    public Runnable takeRespawnTask() {
+        return respawnTask.getAndSet(null);
+    }
+
+    private record ConnectionDetailsPayload(ProtocolVersion protocolVersion, ProtocolVersion serverProtocolVersion, byte[] data) {
+    }
+}
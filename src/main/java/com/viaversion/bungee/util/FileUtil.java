@@ -0,0 +1,69 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.util;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public final class FileUtil {
+
+    private FileUtil() {
+    }
+
+    /**
+     * Writes a new temporary file next to the target and replaces the target with it once fully written.
+     * The temporary file is unique, so concurrent writes never write into the same file, and it is deleted if writing fails.
+     *
+     * @param target file to replace
+     * @param writer writes the contents to the given temporary file
+     * @throws IOException if the file can't be written or moved
+     */
+    public static void writeAndReplace(final Path target, final FileWriter writer) throws IOException {
+        final Path tempFile = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            writer.write(tempFile);
+            replace(tempFile, target);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Replaces the target with the source file, atomically if the file system supports it.
+     *
+     * @param source fully written file
+     * @param target file to replace
+     * @throws IOException if the file can't be moved
+     */
+    public static void replace(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @FunctionalInterface
+    public interface FileWriter {
+
+        void write(Path file) throws IOException;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.bungee.fixture.StandInPlatform;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.io.IOException;
+import java.util.List;
+import net.md_5.bungee.protocol.PacketWrapper;
+import net.md_5.bungee.protocol.Protocol;
+import net.md_5.bungee.protocol.packet.SetCompression;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BungeeViaInjectorTest {
+
+    private EmbeddedChannel channel;
+    private String decoder;
+    private String encoder;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        StandInPlatform.init();
+    }
+
+    @BeforeEach
+    void createChannel() {
+        // Backend channel with the handlers Via is placed around
+        channel = LegacyReorderHandlers.channel();
+        decoder = Via.getManager().getInjector().getDecoderName();
+        encoder = Via.getManager().getInjector().getEncoderName();
+    }
+
+    @AfterEach
+    void closeChannel() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void injectsBackendPipeline() {
+        final UserConnection connection = new BungeeViaInjector().injectPipeline(channel, true);
+
+        assertTrue(connection.isClientSide());
+        assertSame(channel, connection.getChannel());
+        assertEquals(List.of(encoder, BungeeViaInjector.PACKET_ENCODER, BungeeViaInjector.VIA_ENCODE_REORDER,
+            decoder, BungeeViaInjector.PACKET_DECODER, BungeeViaInjector.VIA_DECODE_REORDER), handlerNames());
+        // Client state is only recorded on frontend connections
+        assertNull(channel.attr(BungeeViaInjector.CLIENT_STORAGE).get());
+    }
+
+    @Test
+    void movesDecoderBehindDecompressorOnInboundSetCompression() {
+        new BungeeViaInjector().injectPipeline(channel, true);
+        // Bungee adds the decompressor in front of its packet decoder while handling the packet
+        channel.pipeline().addBefore(BungeeViaInjector.PACKET_DECODER, BungeeViaInjector.DECOMPRESS, new ChannelInboundHandlerAdapter());
+
+        channel.writeInbound(new PacketWrapper(new SetCompression(256), Unpooled.EMPTY_BUFFER, Protocol.GAME));
+
+        assertDecoderInPlace();
+        assertTrue(BungeeViaInjector.hasCompressionInPlace(channel.pipeline()));
+    }
+
+    @Test
+    void movesDecoderBehindDecompressorOnOutboundSetCompression() {
+        new BungeeViaInjector().injectPipeline(channel, true);
+
+        channel.writeOutbound(new SetCompression(256));
+        // Added only after the packet has been written, the move is deferred to the event loop
+        channel.pipeline().addBefore(BungeeViaInjector.PACKET_DECODER, BungeeViaInjector.DECOMPRESS, new ChannelInboundHandlerAdapter());
+        channel.runPendingTasks();
+
+        assertDecoderInPlace();
+    }
+
+    @Test
+    void leavesDecoderInPlace() {
+        new BungeeViaInjector().injectPipeline(channel, true);
+        channel.pipeline().addBefore(decoder, BungeeViaInjector.DECOMPRESS, new ChannelInboundHandlerAdapter());
+        final List<String> names = handlerNames();
+
+        BungeeViaInjector.reorderDecoder(channel.pipeline());
+
+        assertEquals(names, handlerNames());
+    }
+
+    private void assertDecoderInPlace() {
+        final List<String> names = handlerNames();
+        assertEquals(names.indexOf(BungeeViaInjector.DECOMPRESS) + 1, names.indexOf(decoder));
+        assertEquals(names.indexOf(decoder) + 1, names.indexOf(BungeeViaInjector.PACKET_DECODER));
+    }
+
+    private List<String> handlerNames() {
+        return channel.pipeline().names();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.bungee.fixture.StandInPlatform;
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.io.IOException;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReorderHandlerFootprintTest {
+
+    private static final int CHANNELS = 1000;
+
+    @BeforeAll
+    static void setup() throws IOException {
+        StandInPlatform.init();
+    }
+
+    @Test
+    void sharedHandlersRetainLessPerChannel() {
+        final BungeeViaInjector injector = new BungeeViaInjector();
+        final long perChannel = retainedSize(injector, LegacyReorderHandlers::injectPerChannel);
+        final long shared = retainedSize(injector, LegacyReorderHandlers::injectShared);
+
+        final long savedPerChannel = (perChannel - shared) / CHANNELS;
+        assertTrue(savedPerChannel > 0, () -> "Shared handlers retain " + shared + " bytes for " + CHANNELS
+            + " channels, per-channel handlers " + perChannel + " bytes");
+    }
+
+    private static long retainedSize(final BungeeViaInjector injector, final BiConsumer<BungeeViaInjector, Channel> inject) {
+        final EmbeddedChannel[] channels = new EmbeddedChannel[CHANNELS];
+        for (int i = 0; i < CHANNELS; i++) {
+            channels[i] = LegacyReorderHandlers.channel();
+            inject.accept(injector, channels[i]);
+        }
+
+        try {
+            // Objects reachable from all channels, like the protocols, are the same for both and only counted once
+            return GraphLayout.parseInstance((Object[]) channels).totalSize();
+        } finally {
+            for (final EmbeddedChannel channel : channels) {
+                channel.finishAndReleaseAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.providers;
+
+import com.viaversion.bungee.ViaBungeeConfig;
+import com.viaversion.bungee.fixture.StandInPlatform;
+import com.viaversion.bungee.service.ProtocolDetectorService;
+import com.viaversion.bungee.storage.BackendStorage;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.connection.UserConnectionImpl;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BungeeVersionProviderTest {
+
+    private EmbeddedChannel channel;
+    private UserConnection connection;
+    private ProtocolDetectorService service;
+
+    @BeforeAll
+    static void init() throws IOException {
+        StandInPlatform.init();
+    }
+
+    @BeforeEach
+    void setup() {
+        final ViaBungeeConfig config = new ViaBungeeConfig(new File(Via.getPlatform().getDataFolder(), "viabungee.yml"), Via.getPlatform().getLogger());
+        config.reload();
+        service = new ProtocolDetectorService(() -> config);
+        service.setProtocolVersion("lobby", ProtocolVersion.v1_21.getVersion());
+
+        channel = new EmbeddedChannel();
+        connection = new UserConnectionImpl(channel, true);
+    }
+
+    @AfterEach
+    void closeChannel() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void capturesBackendVersion() throws Exception {
+        assertEquals(ProtocolVersion.v1_21, BungeeVersionProvider.captureBackProtocol(connection, "lobby", service));
+        assertEquals(new BackendStorage("lobby", ProtocolVersion.v1_21), connection.get(BackendStorage.class));
+
+        // Kept for the connection, even if the detected version changes
+        service.setProtocolVersion("lobby", ProtocolVersion.v1_20_5.getVersion());
+        assertEquals(ProtocolVersion.v1_21, new BungeeVersionProvider().getClosestServerProtocol(connection));
+    }
+
+    @Test
+    void doesNotCaptureUnknownServer() {
+        BungeeVersionProvider.captureBackProtocol(connection, null, service);
+        assertNull(connection.get(BackendStorage.class));
+    }
+}
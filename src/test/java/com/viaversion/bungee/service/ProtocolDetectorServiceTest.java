@@ -0,0 +1,137 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.service;
+
+import com.viaversion.bungee.ViaBungeeConfig;
+import com.viaversion.bungee.fixture.StandInPlatform;
+import com.viaversion.bungee.fixture.StandInServer;
+import com.viaversion.bungee.fixture.StandInServerInfo;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import net.md_5.bungee.api.config.ServerInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProtocolDetectorServiceTest {
+
+    private static final int PING_TIMEOUT_MILLIS = 200;
+
+    @TempDir
+    File dataFolder;
+
+    private final List<StandInServer> servers = new ArrayList<>();
+    private EventLoopGroup group;
+    private ProtocolDetectorService service;
+
+    @BeforeEach
+    void setup() throws IOException {
+        StandInPlatform.init();
+        group = new NioEventLoopGroup(2);
+
+        final ViaBungeeConfig config = config();
+        service = new ProtocolDetectorService(() -> config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        servers.forEach(StandInServer::close);
+        group.shutdownGracefully().syncUninterruptibly();
+    }
+
+    @Test
+    void countsFailedProbes() {
+        final List<ServerInfo> serverInfos = new ArrayList<>();
+        // The first three servers always drop the connection
+        for (int i = 0; i < 10; i++) {
+            serverInfos.add(server("server-" + i, ProtocolVersion.v1_21, 0, i < 3 ? 1 : 0));
+        }
+
+        final ProbeResult result = service.probeServers(serverInfos, 0).join();
+        assertEquals(7, result.succeeded());
+        assertEquals(7, result.changed());
+        assertEquals(3, result.failed());
+        assertEquals(0, result.timedOut());
+    }
+
+    @Test
+    void countsTimedOutProbes() {
+        final List<ServerInfo> serverInfos = new ArrayList<>();
+        // The first two servers answer well after the ping timeout
+        for (int i = 0; i < 5; i++) {
+            serverInfos.add(server("server-" + i, ProtocolVersion.v1_21, i < 2 ? PING_TIMEOUT_MILLIS * 5L : 0, 0));
+        }
+
+        final ProbeResult result = service.probeServers(serverInfos, 0).join();
+        assertEquals(3, result.succeeded());
+        assertEquals(0, result.failed());
+        assertEquals(2, result.timedOut());
+        // Servers that didn't answer in time keep the default version
+        assertEquals(service.serverProtocolVersion(null), service.serverProtocolVersion("server-0"));
+    }
+
+    @Test
+    void picksUpAndPersistsVersionChanges() throws IOException {
+        final File snapshotFile = new File(dataFolder, "detected-servers.dat");
+        service.loadSnapshot(snapshotFile);
+
+        final ServerInfo serverInfo = server("lobby", ProtocolVersion.v1_21, 0, 0);
+        assertEquals(ProbeResult.Outcome.CHANGED, service.probeServer(serverInfo).join());
+        assertEquals(ProbeResult.Outcome.SUCCEEDED, service.probeServer(serverInfo).join());
+
+        servers.get(0).setProtocolVersion(ProtocolVersion.v1_21_2.getVersion());
+        assertEquals(ProbeResult.Outcome.CHANGED, service.probeServer(serverInfo).join());
+        assertEquals(ProtocolVersion.v1_21_2, service.serverProtocolVersion("lobby"));
+
+        service.savePendingVersions();
+        final ViaBungeeConfig reloadedConfig = config();
+        assertEquals(ProtocolVersion.v1_21_2.getVersion(), reloadedConfig.getBungeeServerProtocols().get("lobby"));
+
+        // Picked up from the snapshot after a restart, before any ping
+        final ProtocolDetectorService restartedService = new ProtocolDetectorService(() -> reloadedConfig);
+        restartedService.loadSnapshot(snapshotFile);
+        assertEquals(ProtocolVersion.v1_21_2, restartedService.serverProtocolVersion("lobby"));
+    }
+
+    private ServerInfo server(final String name, final ProtocolVersion version, final long latencyMillis, final double failureRate) {
+        final StandInServer server = StandInServer.start(group, version.getVersion(), latencyMillis, failureRate);
+        servers.add(server);
+        return new StandInServerInfo(name, server.address(), group, PING_TIMEOUT_MILLIS);
+    }
+
+    private ViaBungeeConfig config() throws IOException {
+        final File configFile = new File(dataFolder, "config.yml");
+        if (!configFile.exists()) {
+            Files.writeString(configFile.toPath(), "bungee-ping-timeout: " + PING_TIMEOUT_MILLIS + "\n");
+        }
+
+        final ViaBungeeConfig config = new ViaBungeeConfig(configFile, Via.getPlatform().getLogger());
+        config.reload();
+        return config;
+    }
+}
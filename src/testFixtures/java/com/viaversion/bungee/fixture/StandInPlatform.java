@@ -0,0 +1,221 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.fixture;
+
+import com.viaversion.bungee.platform.BungeeViaConfig;
+import com.viaversion.viaversion.ViaAPIBase;
+import com.viaversion.viaversion.ViaManagerImpl;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.ViaAPI;
+import com.viaversion.viaversion.api.connection.UserConnection;
+import com.viaversion.viaversion.api.platform.PlatformTask;
+import com.viaversion.viaversion.api.platform.ViaInjector;
+import com.viaversion.viaversion.api.platform.ViaPlatform;
+import com.viaversion.viaversion.api.platform.ViaPlatformLoader;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import com.viaversion.viaversion.commands.ViaCommandHandler;
+import com.viaversion.viaversion.libs.gson.JsonObject;
+import io.netty.buffer.ByteBuf;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import net.md_5.bungee.protocol.ProtocolConstants;
+
+/**
+ * Minimal Via platform to run ViaBungee outside of BungeeCord, shared by tests and benchmarks.
+ */
+public final class StandInPlatform implements ViaPlatform<Object> {
+
+    private static boolean initialized;
+    private final Logger logger = Logger.getLogger("ViaStandIn");
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "Via Stand-in Thread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final File dataFolder;
+    private final BungeeViaConfig config;
+    private final ViaAPI<Object> api = new ViaAPIBase<>() {
+
+        @Override
+        public ProtocolVersion getPlayerProtocolVersion(final Object player) {
+            return ProtocolVersion.unknown;
+        }
+
+        @Override
+        public void sendRawPacket(final Object player, final ByteBuf packet) {
+            packet.release();
+        }
+    };
+
+    private StandInPlatform() throws IOException {
+        this.dataFolder = Files.createTempDirectory("viabungee-stand-in").toFile();
+        this.config = new BungeeViaConfig(dataFolder, logger);
+    }
+
+    /**
+     * Initializes Via with all protocols registered, once per JVM.
+     */
+    public static synchronized void init() throws IOException {
+        if (initialized) {
+            return;
+        }
+
+        final StandInPlatform platform = new StandInPlatform();
+        Via.init(ViaManagerImpl.builder()
+            .platform(platform)
+            .injector(new StandInInjector())
+            .loader(new StandInLoader())
+            .commandHandler(new ViaCommandHandler(false))
+            .build());
+        platform.config.reload();
+
+        final ViaManagerImpl manager = (ViaManagerImpl) Via.getManager();
+        manager.init();
+        manager.onServerLoaded();
+        initialized = true;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public String getPlatformName() {
+        return "Stand-in";
+    }
+
+    @Override
+    public String getPlatformVersion() {
+        return "1.0";
+    }
+
+    @Override
+    public boolean isProxy() {
+        return false;
+    }
+
+    @Override
+    public PlatformTask runAsync(final Runnable runnable) {
+        return task(executor.schedule(runnable, 0, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public PlatformTask runRepeatingAsync(final Runnable runnable, final long ticks) {
+        return task(executor.scheduleAtFixedRate(runnable, 0, ticks * 50, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public PlatformTask runSync(final Runnable runnable) {
+        return runAsync(runnable);
+    }
+
+    @Override
+    public PlatformTask runSync(final Runnable runnable, final long delay) {
+        return task(executor.schedule(runnable, delay * 50, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public PlatformTask runRepeatingSync(final Runnable runnable, final long period) {
+        return runRepeatingAsync(runnable, period);
+    }
+
+    private PlatformTask task(final ScheduledFuture<?> future) {
+        return () -> future.cancel(false);
+    }
+
+    @Override
+    public void sendMessage(final UserConnection connection, final String message) {
+    }
+
+    @Override
+    public void sendCustomPayload(final UserConnection connection, final String channel, final byte[] message) {
+    }
+
+    @Override
+    public void sendCustomPayloadToClient(final UserConnection connection, final String channel, final byte[] message) {
+    }
+
+    @Override
+    public boolean kickPlayer(final UserConnection connection, final String message) {
+        return false;
+    }
+
+    @Override
+    public File getDataFolder() {
+        return dataFolder;
+    }
+
+    @Override
+    public ViaAPI<Object> getApi() {
+        return api;
+    }
+
+    @Override
+    public BungeeViaConfig getConf() {
+        return config;
+    }
+
+    @Override
+    public JsonObject getDump() {
+        return new JsonObject();
+    }
+
+    @Override
+    public boolean hasPlugin(final String name) {
+        return false;
+    }
+
+    private static final class StandInInjector implements ViaInjector {
+
+        @Override
+        public void inject() {
+        }
+
+        @Override
+        public void uninject() {
+        }
+
+        @Override
+        public ProtocolVersion getServerProtocolVersion() {
+            return ProtocolVersion.getProtocol(ProtocolConstants.SUPPORTED_VERSION_IDS.get(0));
+        }
+
+        @Override
+        public JsonObject getDump() {
+            return new JsonObject();
+        }
+    }
+
+    private static final class StandInLoader implements ViaPlatformLoader {
+
+        @Override
+        public void load() {
+        }
+
+        @Override
+        public void unload() {
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.fixture;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The few parts of the Minecraft protocol spoken by stand-in servers: framing, handshake, status and login disconnect.
+ */
+final class StandInProtocol {
+
+    static final int HANDSHAKE_ID = 0x00;
+    static final int STATUS_REQUEST_ID = 0x00;
+    static final int STATUS_RESPONSE_ID = 0x00;
+    static final int PING_ID = 0x01;
+    static final int LOGIN_DISCONNECT_ID = 0x00;
+    static final int STATUS_STATE = 1;
+    static final int LOGIN_STATE = 2;
+
+    private StandInProtocol() {
+    }
+
+    static int readVarInt(final ByteBuf buf) {
+        int value = 0;
+        for (int i = 0; i < 5; i++) {
+            final byte in = buf.readByte();
+            value |= (in & 0x7F) << (i * 7);
+            if ((in & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("VarInt too big");
+    }
+
+    static void writeVarInt(final ByteBuf buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    static String readString(final ByteBuf buf) {
+        final int length = readVarInt(buf);
+        final String value = buf.toString(buf.readerIndex(), length, StandardCharsets.UTF_8);
+        buf.skipBytes(length);
+        return value;
+    }
+
+    static void writeString(final ByteBuf buf, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(buf, bytes.length);
+        buf.writeBytes(bytes);
+    }
+
+    /**
+     * Writes a length prefixed packet around the given body.
+     */
+    static ByteBuf frame(final ChannelHandlerContext ctx, final int packetId, final ByteBuf body) {
+        final ByteBuf packet = ctx.alloc().buffer(body.readableBytes() + 10);
+        writeVarInt(packet, varIntLength(packetId) + body.readableBytes());
+        writeVarInt(packet, packetId);
+        packet.writeBytes(body);
+        body.release();
+        return packet;
+    }
+
+    private static int varIntLength(final int value) {
+        for (int i = 1; i < 5; i++) {
+            if ((value & -1 << i * 7) == 0) {
+                return i;
+            }
+        }
+        return 5;
+    }
+
+    /**
+     * Splits the stream into packets without their length prefix.
+     */
+    static final class FrameDecoder extends ByteToMessageDecoder {
+
+        @Override
+        protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) {
+            in.markReaderIndex();
+            int length = 0;
+            for (int i = 0; i < 3; i++) {
+                if (!in.isReadable()) {
+                    in.resetReaderIndex();
+                    return;
+                }
+
+                final byte b = in.readByte();
+                length |= (b & 0x7F) << (i * 7);
+                if ((b & 0x80) == 0) {
+                    if (in.readableBytes() < length) {
+                        in.resetReaderIndex();
+                        return;
+                    }
+                    out.add(in.readRetainedSlice(length));
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("Packet length too big");
+        }
+    }
+}
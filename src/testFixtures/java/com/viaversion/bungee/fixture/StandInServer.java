@@ -0,0 +1,168 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.fixture;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lightweight server on loopback answering status pings and login handshakes like a Minecraft server of a given version.
+ * Login attempts with any other version are rejected with an outdated message, matching ones are disconnected as well.
+ */
+public final class StandInServer implements AutoCloseable {
+
+    private final Channel channel;
+    private volatile int protocolVersion;
+    private volatile long latencyMillis;
+    private volatile double failureRate;
+
+    private StandInServer(final EventLoopGroup group, final int protocolVersion, final long latencyMillis, final double failureRate) {
+        this.protocolVersion = protocolVersion;
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+        this.channel = new ServerBootstrap()
+            .group(group)
+            .channel(NioServerSocketChannel.class)
+            .childHandler(new ChannelInitializer<>() {
+                @Override
+                protected void initChannel(final Channel channel) {
+                    channel.pipeline().addLast(new StandInProtocol.FrameDecoder(), new Handler());
+                }
+            })
+            .bind(InetAddress.getLoopbackAddress(), 0)
+            .syncUninterruptibly()
+            .channel();
+    }
+
+    /**
+     * Starts a stand-in server on a free loopback port.
+     *
+     * @param group           event loop group to run the server on
+     * @param protocolVersion protocol version to answer with
+     * @param latencyMillis   delay before answering each packet
+     * @param failureRate     chance between 0 and 1 to drop a connection instead of answering
+     * @return started server
+     */
+    public static StandInServer start(final EventLoopGroup group, final int protocolVersion, final long latencyMillis, final double failureRate) {
+        return new StandInServer(group, protocolVersion, latencyMillis, failureRate);
+    }
+
+    public InetSocketAddress address() {
+        return (InetSocketAddress) channel.localAddress();
+    }
+
+    public void setProtocolVersion(final int protocolVersion) {
+        this.protocolVersion = protocolVersion;
+    }
+
+    public void setLatencyMillis(final long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void setFailureRate(final double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public void close() {
+        channel.close().syncUninterruptibly();
+    }
+
+    private final class Handler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        private int state;
+        private int clientProtocolVersion;
+
+        @Override
+        public void channelActive(final ChannelHandlerContext ctx) throws Exception {
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                ctx.close();
+                return;
+            }
+            super.channelActive(ctx);
+        }
+
+        @Override
+        protected void channelRead0(final ChannelHandlerContext ctx, final ByteBuf packet) {
+            final int packetId = StandInProtocol.readVarInt(packet);
+            if (state == 0) {
+                if (packetId != StandInProtocol.HANDSHAKE_ID) {
+                    ctx.close();
+                    return;
+                }
+
+                clientProtocolVersion = StandInProtocol.readVarInt(packet);
+                StandInProtocol.readString(packet);
+                packet.readUnsignedShort();
+                state = StandInProtocol.readVarInt(packet);
+                if (state == StandInProtocol.LOGIN_STATE) {
+                    final String message = clientProtocolVersion == protocolVersion ? "Stand-in server" : "Outdated client! Please use " + protocolVersion;
+                    final ByteBuf body = ctx.alloc().buffer();
+                    StandInProtocol.writeString(body, "{\"text\":\"" + message + "\"}");
+                    reply(ctx, StandInProtocol.LOGIN_DISCONNECT_ID, body, true);
+                }
+            } else if (state == StandInProtocol.STATUS_STATE) {
+                final ByteBuf body = ctx.alloc().buffer();
+                if (packetId == StandInProtocol.STATUS_REQUEST_ID) {
+                    StandInProtocol.writeString(body, "{\"version\":{\"name\":\"Stand-in\",\"protocol\":" + protocolVersion + "},"
+                        + "\"players\":{\"max\":100,\"online\":0},\"description\":{\"text\":\"Stand-in server\"}}");
+                    reply(ctx, StandInProtocol.STATUS_RESPONSE_ID, body, false);
+                } else if (packetId == StandInProtocol.PING_ID) {
+                    body.writeLong(packet.readLong());
+                    reply(ctx, StandInProtocol.PING_ID, body, true);
+                } else {
+                    body.release();
+                    ctx.close();
+                }
+            }
+        }
+
+        private void reply(final ChannelHandlerContext ctx, final int packetId, final ByteBuf body, final boolean close) {
+            final Runnable write = () -> {
+                final ChannelFuture future = ctx.writeAndFlush(StandInProtocol.frame(ctx, packetId, body));
+                if (close) {
+                    future.addListener(ChannelFutureListener.CLOSE);
+                }
+            };
+
+            final long latency = latencyMillis;
+            if (latency > 0) {
+                ctx.executor().schedule(write, latency, TimeUnit.MILLISECONDS);
+            } else {
+                write.run();
+            }
+        }
+
+        @Override
+        public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
+            ctx.close();
+        }
+    }
+}
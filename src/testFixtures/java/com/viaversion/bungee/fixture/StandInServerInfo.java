@@ -0,0 +1,182 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.fixture;
+
+import com.viaversion.viaversion.libs.gson.JsonObject;
+import com.viaversion.viaversion.libs.gson.JsonParser;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.Collections;
+import net.md_5.bungee.api.Callback;
+import net.md_5.bungee.api.CommandSender;
+import net.md_5.bungee.api.ServerPing;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+/**
+ * Server info pinging a {@link StandInServer} the same way BungeeCord pings its servers, without a running proxy.
+ */
+public final class StandInServerInfo implements ServerInfo {
+
+    private final String name;
+    private final InetSocketAddress address;
+    private final EventLoopGroup group;
+    private final int timeoutMillis;
+
+    public StandInServerInfo(final String name, final InetSocketAddress address, final EventLoopGroup group, final int timeoutMillis) {
+        this.name = name;
+        this.address = address;
+        this.group = group;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    @Override
+    public SocketAddress getSocketAddress() {
+        return address;
+    }
+
+    @Override
+    public Collection<ProxiedPlayer> getPlayers() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getMotd() {
+        return "Stand-in server";
+    }
+
+    @Override
+    public boolean isRestricted() {
+        return false;
+    }
+
+    @Override
+    public String getPermission() {
+        return "bungeecord.server." + name;
+    }
+
+    @Override
+    public boolean canAccess(final CommandSender sender) {
+        return true;
+    }
+
+    @Override
+    public void sendData(final String channel, final byte[] data) {
+    }
+
+    @Override
+    public boolean sendData(final String channel, final byte[] data, final boolean queue) {
+        return false;
+    }
+
+    @Override
+    public void ping(final Callback<ServerPing> callback) {
+        final ChannelFuture connectFuture = new Bootstrap()
+            .group(group)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutMillis)
+            .handler(new ChannelInitializer<>() {
+                @Override
+                protected void initChannel(final Channel channel) {
+                    channel.pipeline().addLast(new StandInProtocol.FrameDecoder(), new StatusHandler(callback));
+                }
+            })
+            .connect(address);
+        connectFuture.addListener(future -> {
+            if (!future.isSuccess()) {
+                callback.done(null, future.cause());
+            }
+        });
+    }
+
+    private final class StatusHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        private final Callback<ServerPing> callback;
+        private boolean done;
+
+        private StatusHandler(final Callback<ServerPing> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void channelActive(final ChannelHandlerContext ctx) {
+            final ByteBuf handshake = ctx.alloc().buffer();
+            StandInProtocol.writeVarInt(handshake, -1);
+            StandInProtocol.writeString(handshake, address.getHostString());
+            handshake.writeShort(address.getPort());
+            StandInProtocol.writeVarInt(handshake, StandInProtocol.STATUS_STATE);
+            ctx.write(StandInProtocol.frame(ctx, StandInProtocol.HANDSHAKE_ID, handshake));
+            ctx.writeAndFlush(StandInProtocol.frame(ctx, StandInProtocol.STATUS_REQUEST_ID, ctx.alloc().buffer(0)));
+        }
+
+        @Override
+        protected void channelRead0(final ChannelHandlerContext ctx, final ByteBuf packet) {
+            if (StandInProtocol.readVarInt(packet) != StandInProtocol.STATUS_RESPONSE_ID) {
+                complete(null, new IOException("Unexpected packet from " + name));
+                ctx.close();
+                return;
+            }
+
+            final JsonObject version = JsonParser.parseString(StandInProtocol.readString(packet)).getAsJsonObject().getAsJsonObject("version");
+            final ServerPing ping = new ServerPing();
+            ping.setVersion(new ServerPing.Protocol(version.get("name").getAsString(), version.get("protocol").getAsInt()));
+            complete(ping, null);
+            ctx.close();
+        }
+
+        @Override
+        public void channelInactive(final ChannelHandlerContext ctx) {
+            complete(null, new IOException("Connection to " + name + " closed"));
+        }
+
+        @Override
+        public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
+            complete(null, cause);
+            ctx.close();
+        }
+
+        private void complete(final ServerPing ping, final Throwable throwable) {
+            if (!done) {
+                done = true;
+                callback.done(ping, throwable);
+            }
+        }
+    }
+}
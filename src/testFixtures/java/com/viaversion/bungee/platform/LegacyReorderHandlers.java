@@ -0,0 +1,98 @@
+/*
+ * This file is part of ViaBungee - https://github.com/ViaVersion/ViaBungee
+ * Copyright (C) 2016-2026 ViaVersion and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.viaversion.bungee.platform;
+
+import com.viaversion.viaversion.api.Via;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.md_5.bungee.protocol.PacketWrapper;
+import net.md_5.bungee.protocol.packet.SetCompression;
+
+/**
+ * Per-channel reorder handlers as they were created before being replaced by shared ones, to compare against.
+ */
+public final class LegacyReorderHandlers {
+
+    private LegacyReorderHandlers() {
+    }
+
+    /**
+     * Creates a channel with placeholders for Bungee's packet encoder and decoder, as Via expects them.
+     *
+     * @return new channel
+     */
+    public static EmbeddedChannel channel() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast(BungeeViaInjector.PACKET_ENCODER, new ChannelOutboundHandlerAdapter());
+        channel.pipeline().addLast(BungeeViaInjector.PACKET_DECODER, new ChannelInboundHandlerAdapter());
+        return channel;
+    }
+
+    /**
+     * Injects Via into the channel with shared reorder handlers.
+     *
+     * @param injector injector
+     * @param channel  channel created by {@link #channel()}
+     */
+    public static void injectShared(final BungeeViaInjector injector, final Channel channel) {
+        injector.injectPipeline(channel, true);
+    }
+
+    /**
+     * Injects Via into the channel and replaces the shared reorder handlers with per-channel ones capturing the channel and decoder.
+     *
+     * @param injector injector
+     * @param channel  channel created by {@link #channel()}
+     */
+    public static void injectPerChannel(final BungeeViaInjector injector, final Channel channel) {
+        injector.injectPipeline(channel, true);
+
+        final ChannelHandler decoder = channel.pipeline().get(Via.getManager().getInjector().getDecoderName());
+        channel.pipeline().replace(BungeeViaInjector.VIA_ENCODE_REORDER, BungeeViaInjector.VIA_ENCODE_REORDER, new ChannelOutboundHandlerAdapter() {
+
+            @Override
+            public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) throws Exception {
+                if (msg instanceof SetCompression && !BungeeViaInjector.hasCompressionInPlace(channel.pipeline())) {
+                    channel.eventLoop().execute(() -> reinject(channel, decoder));
+                }
+                super.write(ctx, msg, promise);
+            }
+        });
+        channel.pipeline().replace(BungeeViaInjector.VIA_DECODE_REORDER, BungeeViaInjector.VIA_DECODE_REORDER, new ChannelInboundHandlerAdapter() {
+
+            @Override
+            public void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
+                super.channelRead(ctx, msg);
+                if (msg instanceof PacketWrapper packetWrapper && packetWrapper.packet instanceof SetCompression) {
+                    reinject(channel, decoder);
+                }
+            }
+        });
+    }
+
+    private static void reinject(final Channel channel, final ChannelHandler decoder) {
+        final String name = Via.getManager().getInjector().getDecoderName();
+        channel.pipeline().remove(name);
+        channel.pipeline().addBefore(BungeeViaInjector.PACKET_DECODER, name, decoder);
+    }
+}